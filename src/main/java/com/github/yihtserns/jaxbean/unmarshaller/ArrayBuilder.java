@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import com.github.yihtserns.jaxbean.unmarshaller.api.ListCreatingBeanHandler;
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * List accumulator that fills an exactly-sized array of the property's component type, so array properties can be
+ * set without going through a list and a conversion. Still grows (and is trimmed at the end) if the expected size
+ * turns out to be wrong, e.g. when not all children are known yet.
+ * <p>
+ * Primitive component types are left to the bean handler's list, and a value that still needs converting to the
+ * component type turns the result back into a list, so the bean handler converts it like any other list.
+ *
+ * @author yihtserns
+ */
+final class ArrayBuilder extends AbstractList<Object> {
+
+    private Object[] array;
+    private int size = 0;
+    private boolean typed = true;
+
+    private ArrayBuilder(Class<?> componentType, int length) {
+        this.array = (Object[]) Array.newInstance(componentType, length);
+    }
+
+    /**
+     * @param arrayComponentType {@code null} if the property is a list
+     * @return {@link ArrayBuilder} if the property is an array and the bean handler can take arrays, otherwise the
+     * bean handler's own list if it creates them, or a presized {@code ArrayList}
+     */
+    public static List<Object> createList(BeanHandler beanHandler, Class<?> arrayComponentType, int expectedSize) {
+        if (arrayComponentType != null
+                && !arrayComponentType.isPrimitive()
+                && beanHandler instanceof ArrayBuildingBeanHandler) {
+            return new ArrayBuilder(arrayComponentType, expectedSize);
+        }
+        if (beanHandler instanceof ListCreatingBeanHandler) {
+            return ((ListCreatingBeanHandler) beanHandler).createList(expectedSize);
+        }
+        return new ArrayList<Object>(expectedSize);
+    }
+
+    /**
+     * @return the array if the list is an {@link ArrayBuilder} of values all of the component type, otherwise a list
+     */
+    public static Object toValue(List<Object> list) {
+        if (!(list instanceof ArrayBuilder)) {
+            return list;
+        }
+        ArrayBuilder builder = (ArrayBuilder) list;
+        if (!builder.typed) {
+            return new ArrayList<Object>(builder);
+        }
+        return builder.size == builder.array.length ? builder.array : Arrays.copyOf(builder.array, builder.size);
+    }
+
+    @Override
+    public boolean add(Object value) {
+        if (typed && value != null && !array.getClass().getComponentType().isInstance(value)) {
+            array = Arrays.copyOf(array, array.length, Object[].class);
+            typed = false;
+        }
+        if (size == array.length) {
+            array = Arrays.copyOf(array, Math.max(size * 2, 1));
+        }
+        array[size++] = value;
+        return true;
+    }
+
+    @Override
+    public Object get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return array[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
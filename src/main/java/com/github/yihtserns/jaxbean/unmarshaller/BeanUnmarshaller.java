@@ -15,13 +15,16 @@
  */
 package com.github.yihtserns.jaxbean.unmarshaller;
 
+import com.github.yihtserns.jaxbean.unmarshaller.BindingMetadata.Binding;
 import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
 import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.InitializableElementUnmarshaller;
 import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.ElementUnmarshallerProvider;
 import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.ElementUnmarshallerProvider.Handler;
-import java.lang.reflect.AccessibleObject;
+import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.Frame;
+import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.FrameUnmarshaller;
 import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -29,74 +32,83 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
-import javax.xml.bind.annotation.XmlElementRef;
 import javax.xml.bind.annotation.XmlElementWrapper;
-import javax.xml.bind.annotation.XmlElements;
-import javax.xml.bind.annotation.XmlValue;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
-import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  *
  * @author yihtserns
  */
-class BeanUnmarshaller implements InitializableElementUnmarshaller {
+class BeanUnmarshaller implements InitializableElementUnmarshaller, FrameUnmarshaller {
 
     public static final String AUTO_GENERATED_NAME = "##default";
+    private static final Set<String> WHOLE_PROPERTY = Collections.emptySet();
+    /**
+     * Initial size of a list whose elements cannot be counted up front, same as {@code ArrayList}'s.
+     */
+    private static final int DEFAULT_LIST_SIZE = 10;
     private Set<String> listTypeElementNames = new HashSet<String>();
     private Map<String, String> elementName2PropertyName = new HashMap<String, String>();
     private Map<String, String> attributeName2PropertyName = new HashMap<String, String>();
     private Map<String, Unmarshaller<Attr>> attributeName2Unmarshaller = new HashMap<String, Unmarshaller<Attr>>();
     private Map<String, Unmarshaller<Element>> localName2Unmarshaller = new HashMap<String, Unmarshaller<Element>>();
+    private Map<String, Class<?>> propertyName2ArrayComponentType = new HashMap<String, Class<?>>();
     private String textContentPropertyName = null;
+    private StringTable textContentStringTable = null;
+    private Set<String> ignoredAttributeNames = new HashSet<String>();
+    private Set<String> ignoredElementNames = new HashSet<String>();
+    private List<Binding> elementRefBindings = new ArrayList<Binding>();
+    private ValueTable valueTable;
+    private ConstructorBinding constructorBinding;
     final Class<?> beanClass;
+    final Configuration configuration;
 
-    protected BeanUnmarshaller(Class<?> beanClass) throws Exception {
+    protected BeanUnmarshaller(Class<?> beanClass, Configuration configuration) throws Exception {
         this.beanClass = beanClass;
+        this.configuration = configuration;
+        this.valueTable = configuration.isValueInterned(beanClass) ? configuration.getValueTable() : null;
+        this.constructorBinding = BindingMetadata.of(beanClass).getConstructorBinding();
     }
 
     @Override
     public void init(ElementUnmarshallerProvider unmarshallerProvider) throws Exception {
-        Class<?> currentClass = beanClass;
-        while (currentClass != Object.class) {
-            XmlAccessorType xmlAccessorType = currentClass.getAnnotation(XmlAccessorType.class);
-            PropertyResolver resolver = getResolverFor(xmlAccessorType);
-            for (AccessibleObject accObj : resolver.getDirectMembers(currentClass)) {
-                if (accObj.isAnnotationPresent(XmlAttribute.class)) {
-                    addAttribute(accObj, resolver);
-                } else if (accObj.isAnnotationPresent(XmlElement.class)) {
-                    XmlElement[] xmlElements = {accObj.getAnnotation(XmlElement.class)};
-                    addElements(xmlElements, accObj, resolver, unmarshallerProvider);
-                } else if (accObj.isAnnotationPresent(XmlElements.class)) {
-                    XmlElements xmlElements = accObj.getAnnotation(XmlElements.class);
-                    addElements(xmlElements.value(), accObj, resolver, unmarshallerProvider);
-                } else if (accObj.isAnnotationPresent(XmlElementRef.class)) {
-                    addElementRef(accObj, resolver, unmarshallerProvider);
-                } else if (accObj.isAnnotationPresent(XmlValue.class)) {
-                    setTextContent(accObj, resolver);
-                }
+        for (Binding binding : BindingMetadata.of(beanClass).getBindings()) {
+            switch (binding.kind) {
+                case ATTRIBUTE:
+                    addAttribute(binding);
+                    break;
+                case ELEMENTS:
+                    addElements(binding, unmarshallerProvider);
+                    break;
+                case ELEMENT_REF:
+                    addElementRef(binding, unmarshallerProvider);
+                    elementRefBindings.add(binding);
+                    break;
+                case VALUE:
+                    setTextContent(binding);
+                    break;
             }
-            currentClass = currentClass.getSuperclass();
         }
     }
 
-    public <T extends AccessibleObject> void addAttribute(T accObj, PropertyResolver<T> resolver) throws Exception {
-        XmlAttribute xmlAttribute = accObj.getAnnotation(XmlAttribute.class);
+    public void addAttribute(Binding binding) throws Exception {
+        XmlAttribute xmlAttribute = binding.accObj.getAnnotation(XmlAttribute.class);
 
-        String propertyName = resolver.getPropertyName(accObj);
+        String propertyName = binding.propertyName;
         String attributeName = returnNameOrDefault(xmlAttribute.name(), propertyName);
 
         Unmarshaller<Attr> unmarshaller = AttributeValueUnmarshaller.INSTANCE;
-        if (accObj.isAnnotationPresent(XmlJavaTypeAdapter.class)) {
-            XmlAdapter adapter = accObj.getAnnotation(XmlJavaTypeAdapter.class).value().newInstance();
+        if (configuration.isStringDeduplicated(beanClass, propertyName)) {
+            unmarshaller = new StringDeduplicatingUnmarshaller<Attr>(configuration.getStringTable(), unmarshaller);
+        }
+        if (binding.adapterClass != null) {
+            XmlAdapter adapter = binding.adapterClass.newInstance();
             unmarshaller = new XmlAdapterUnmarshaller(adapter, unmarshaller);
         }
 
@@ -104,20 +116,22 @@ class BeanUnmarshaller implements InitializableElementUnmarshaller {
         attributeName2Unmarshaller.put(attributeName, unmarshaller);
     }
 
-    public <T extends AccessibleObject> void addElements(
-            XmlElement[] xmlElements,
-            T accObj,
-            PropertyResolver<T> resolver,
-            ElementUnmarshallerProvider unmarshallerProvider) throws Exception {
-        final String propertyName = resolver.getPropertyName(accObj);
-        XmlElementWrapper elementWrapper = accObj.getAnnotation(XmlElementWrapper.class);
+    public void addElements(Binding binding, ElementUnmarshallerProvider unmarshallerProvider) throws Exception {
+        final String propertyName = binding.propertyName;
+        XmlElementWrapper elementWrapper = binding.accObj.getAnnotation(XmlElementWrapper.class);
 
         if (elementWrapper != null) {
             String wrapperElementName = returnNameOrDefault(elementWrapper.name(), propertyName);
 
             ElementWrapperUnmarshaller wrapperUnmarshaller = newWrapperUnmarshaller();
-            for (XmlElement xmlElement : xmlElements) {
-                Unmarshaller<Element> childUnmarshaller = resolveUnmarshaller(resolver, accObj, xmlElement, unmarshallerProvider);
+            if (binding.arrayType) {
+                wrapperUnmarshaller.setArrayComponentType(binding.componentType);
+            }
+            for (XmlElement xmlElement : binding.xmlElements) {
+                Unmarshaller<Element> childUnmarshaller = resolveUnmarshaller(binding, xmlElement, unmarshallerProvider);
+                if (binding.deferredType) {
+                    childUnmarshaller = new DeferringUnmarshaller(childUnmarshaller, configuration);
+                }
 
                 String elementName = returnNameOrDefault(xmlElement.name(), propertyName);
                 wrapperUnmarshaller.put(elementName, childUnmarshaller);
@@ -126,13 +140,19 @@ class BeanUnmarshaller implements InitializableElementUnmarshaller {
             elementName2PropertyName.put(wrapperElementName, propertyName);
             localName2Unmarshaller.put(wrapperElementName, wrapperUnmarshaller);
         } else {
-            for (XmlElement xmlElement : xmlElements) {
+            for (XmlElement xmlElement : binding.xmlElements) {
                 String elementName = returnNameOrDefault(xmlElement.name(), propertyName);
-                Unmarshaller<Element> childUnmarshaller = resolveUnmarshaller(resolver, accObj, xmlElement, unmarshallerProvider);
+                Unmarshaller<Element> childUnmarshaller = resolveUnmarshaller(binding, xmlElement, unmarshallerProvider);
+                if (binding.deferredType) {
+                    childUnmarshaller = new DeferringUnmarshaller(childUnmarshaller, configuration);
+                }
 
-                if (resolver.isListType(accObj)) {
+                if (binding.listType) {
                     listTypeElementNames.add(elementName);
                 }
+                if (binding.arrayType) {
+                    propertyName2ArrayComponentType.put(propertyName, binding.componentType);
+                }
                 elementName2PropertyName.put(elementName, propertyName);
                 localName2Unmarshaller.put(elementName, childUnmarshaller);
             }
@@ -147,17 +167,18 @@ class BeanUnmarshaller implements InitializableElementUnmarshaller {
         return !name.equals(AUTO_GENERATED_NAME) ? name : autogeneratedName;
     }
 
-    private <T extends AccessibleObject> Unmarshaller<Element> resolveUnmarshaller(
-            PropertyResolver<T> resolver,
-            T accObj,
+    private Unmarshaller<Element> resolveUnmarshaller(
+            Binding binding,
             XmlElement xmlElement,
             ElementUnmarshallerProvider unmarshallerProvider) throws Exception {
 
-        if (accObj.isAnnotationPresent(XmlJavaTypeAdapter.class)) {
-            Class<? extends XmlAdapter> adapterClass = accObj.getAnnotation(XmlJavaTypeAdapter.class).value();
+        if (binding.adapterClass != null) {
+            Class<? extends XmlAdapter> adapterClass = binding.adapterClass;
 
             Class<?> valueType = (Class) ((ParameterizedType) adapterClass.getGenericSuperclass()).getActualTypeArguments()[0];
-            Unmarshaller<Element> unmarshaller = unmarshallerProvider.getUnmarshallerForType(valueType);
+            Unmarshaller<Element> unmarshaller = deduplicateIfText(
+                    unmarshallerProvider.getUnmarshallerForType(valueType),
+                    binding.propertyName);
 
             XmlAdapter adapter = adapterClass.newInstance();
             return new XmlAdapterUnmarshaller(adapter, unmarshaller);
@@ -165,87 +186,248 @@ class BeanUnmarshaller implements InitializableElementUnmarshaller {
 
         Class<?> type = xmlElement.type();
         if (type == XmlElement.DEFAULT.class) {
-            type = resolver.getComponentType(accObj);
+            type = binding.componentType;
         }
 
-        return unmarshallerProvider.getUnmarshallerForType(type);
+        return deduplicateIfText(unmarshallerProvider.getUnmarshallerForType(type), binding.propertyName);
     }
 
-    public <T extends AccessibleObject> void addElementRef(
-            final T accObj,
-            final PropertyResolver<T> resolver,
-            ElementUnmarshallerProvider unmarshallerProvider) {
-        Class<?> propertyType = resolver.getComponentType(accObj);
-        final String propertyName = resolver.getPropertyName(accObj);
+    private Unmarshaller<Element> deduplicateIfText(Unmarshaller<Element> unmarshaller, String propertyName) {
+        if (unmarshaller != ElementTextContentUnmarshaller.INSTANCE
+                || !configuration.isStringDeduplicated(beanClass, propertyName)) {
+            return unmarshaller;
+        }
+        return new StringDeduplicatingUnmarshaller<Element>(configuration.getStringTable(), unmarshaller);
+    }
 
-        unmarshallerProvider.forGlobalUnmarshallerCompatibleWith(propertyType, new Handler() {
+    public void addElementRef(final Binding binding, ElementUnmarshallerProvider unmarshallerProvider) {
+        unmarshallerProvider.forGlobalUnmarshallerCompatibleWith(binding.componentType, new Handler() {
             public void handle(String globalName, Unmarshaller<Element> unmarshaller) {
-                elementName2PropertyName.put(globalName, propertyName);
+                if (binding.deferredType) {
+                    unmarshaller = new DeferringUnmarshaller(unmarshaller, configuration);
+                }
+                elementName2PropertyName.put(globalName, binding.propertyName);
                 localName2Unmarshaller.put(globalName, unmarshaller);
-                if (resolver.isListType(accObj)) {
+                if (binding.listType) {
                     listTypeElementNames.add(globalName);
                 }
+                if (binding.arrayType) {
+                    propertyName2ArrayComponentType.put(binding.propertyName, binding.componentType);
+                }
             }
         });
     }
 
-    private <T extends AccessibleObject> void setTextContent(T accObj, PropertyResolver<T> resolver) {
-        this.textContentPropertyName = resolver.getPropertyName(accObj);
+    private void setTextContent(Binding binding) {
+        this.textContentPropertyName = binding.propertyName;
+        if (configuration.isStringDeduplicated(beanClass, textContentPropertyName)) {
+            this.textContentStringTable = configuration.getStringTable();
+        }
     }
 
-    private PropertyResolver getResolverFor(XmlAccessorType xmlAccessorType) throws UnsupportedOperationException {
-        switch (xmlAccessorType.value()) {
-            case FIELD:
-                return PropertyResolver.FIELD;
-            case PROPERTY:
-                return PropertyResolver.METHOD;
-            default:
-                throw new UnsupportedOperationException("XML Access Type not supported yet: " + xmlAccessorType.value());
+    /**
+     * @return names of all properties bound by this unmarshaller
+     */
+    public Set<String> getPropertyNames() {
+        Set<String> propertyNames = new HashSet<String>();
+        propertyNames.addAll(attributeName2PropertyName.values());
+        propertyNames.addAll(elementName2PropertyName.values());
+        if (textContentPropertyName != null) {
+            propertyNames.add(textContentPropertyName);
         }
+        return propertyNames;
     }
 
     @Override
     public Object unmarshal(Element element, BeanHandler beanHandler) throws Exception {
-        Object bean = beanHandler.createBean(beanClass);
-        NamedNodeMap attributes = element.getAttributes();
-        for (int i = 0; i < attributes.getLength(); i++) {
-            Attr attr = (Attr) attributes.item(i);
-            if (isNamespaceDeclaration(attr)) {
-                continue;
-            }
-            String attributeName = attr.getName();
-            Unmarshaller<Attr> unmarshaller = attributeName2Unmarshaller.get(attributeName);
+        Frame frame = newFrame(element, beanHandler);
+        for (Element childElement = frame.nextChild(); childElement != null; childElement = frame.nextChild()) {
+            frame.accept(frame.getChildUnmarshaller().unmarshal(childElement, beanHandler));
+        }
+        return frame.complete();
+    }
+
+    @Override
+    public Frame newFrame(Element element, BeanHandler beanHandler) throws Exception {
+        return newFrame(element, beanHandler, true);
+    }
+
+    /**
+     * @param childrenComplete {@code false} if children will still be appended to the element while the frame is in
+     * use (see {@link PipelinedUnmarshaller}), so lists cannot be presized by counting them
+     */
+    Frame newFrame(Element element, BeanHandler beanHandler, boolean childrenComplete) throws Exception {
+        return new BeanFrame(element, beanHandler, childrenComplete);
+    }
 
-            String propertyName = attributeName2PropertyName.get(attributeName);
-            Object propertyValue = unmarshaller.unmarshal(attr, beanHandler);
+    /**
+     * @return number of elements, from the given one onwards, that are mapped to the given list property
+     */
+    private int countElementsOf(String propertyName, Element from) {
+        int count = 0;
+        for (Node node = from; node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE
+                    && propertyName.equals(elementName2PropertyName.get(node.getLocalName()))) {
+                count++;
+            }
+        }
+        return count;
+    }
 
-            beanHandler.setBeanProperty(bean, propertyName, propertyValue);
+    private void skipUnmapped(String nodeType, String name, Set<String> ignoredNames) {
+        if (!ignoredNames.contains(name) && !configuration.isUnmappedContentIgnored()) {
+            throw new IllegalArgumentException(
+                    "Unmapped " + nodeType + " '" + name + "' for " + beanClass.getName());
         }
+    }
 
-        PropertyValueMap propertyName2PropertyValue = new PropertyValueMap();
-        NodeList childNodes = element.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node item = childNodes.item(i);
-            if (item.getNodeType() != Node.ELEMENT_NODE) {
+    /**
+     * @param propertyPaths dot-separated property names, e.g. {@code child.name}; a property without sub-path is
+     * bound entirely
+     * @return copy of this unmarshaller that only binds the given properties, skipping the rest
+     */
+    public BeanUnmarshaller project(Set<String> propertyPaths) throws Exception {
+        Map<String, Set<String>> propertyName2SubPaths = new HashMap<String, Set<String>>();
+        for (String propertyPath : propertyPaths) {
+            int dotIndex = propertyPath.indexOf('.');
+            if (dotIndex < 0) {
+                propertyName2SubPaths.put(propertyPath, WHOLE_PROPERTY);
                 continue;
             }
-            Element childElement = (Element) item;
-            String localName = item.getLocalName();
-            Unmarshaller<Element> childUnmarshaller = localName2Unmarshaller.get(localName);
-            Object childInstance = childUnmarshaller.unmarshal(childElement, beanHandler);
-            String propertyName = elementName2PropertyName.get(localName);
-            if (listTypeElementNames.contains(localName)) {
-                propertyName2PropertyValue.add(propertyName, childInstance);
+            String propertyName = propertyPath.substring(0, dotIndex);
+            Set<String> subPaths = propertyName2SubPaths.get(propertyName);
+            if (subPaths == WHOLE_PROPERTY) {
+                continue;
+            }
+            if (subPaths == null) {
+                subPaths = new HashSet<String>();
+                propertyName2SubPaths.put(propertyName, subPaths);
+            }
+            subPaths.add(propertyPath.substring(dotIndex + 1));
+        }
+
+        BeanUnmarshaller projection = new BeanUnmarshaller(beanClass, configuration);
+        for (Entry<String, String> entry : attributeName2PropertyName.entrySet()) {
+            String attributeName = entry.getKey();
+            String propertyName = entry.getValue();
+
+            if (propertyName2SubPaths.containsKey(propertyName)) {
+                projection.attributeName2PropertyName.put(attributeName, propertyName);
+                projection.attributeName2Unmarshaller.put(attributeName, attributeName2Unmarshaller.get(attributeName));
             } else {
-                propertyName2PropertyValue.put(propertyName, childInstance);
+                projection.ignoredAttributeNames.add(attributeName);
             }
         }
-        propertyName2PropertyValue.setTo(bean, beanHandler);
+        for (Entry<String, String> entry : elementName2PropertyName.entrySet()) {
+            String elementName = entry.getKey();
+            String propertyName = entry.getValue();
+
+            if (propertyName2SubPaths.containsKey(propertyName)) {
+                Set<String> subPaths = propertyName2SubPaths.get(propertyName);
+                Unmarshaller<Element> unmarshaller = localName2Unmarshaller.get(elementName);
+                if (subPaths != WHOLE_PROPERTY) {
+                    unmarshaller = project(unmarshaller, subPaths);
+                }
+                projection.elementName2PropertyName.put(elementName, propertyName);
+                projection.localName2Unmarshaller.put(elementName, unmarshaller);
+                if (listTypeElementNames.contains(elementName)) {
+                    projection.listTypeElementNames.add(elementName);
+                }
+                if (propertyName2ArrayComponentType.containsKey(propertyName)) {
+                    projection.propertyName2ArrayComponentType.put(propertyName, propertyName2ArrayComponentType.get(propertyName));
+                }
+            } else {
+                projection.ignoredElementNames.add(elementName);
+            }
+        }
+        if (propertyName2SubPaths.containsKey(textContentPropertyName)) {
+            projection.textContentPropertyName = textContentPropertyName;
+            projection.textContentStringTable = textContentStringTable;
+        }
 
-        if (textContentPropertyName != null) {
-            beanHandler.setBeanProperty(bean, textContentPropertyName, element.getTextContent());
+        return projection;
+    }
+
+    /**
+     * @return copy with its own bindings, which still point to the same child unmarshallers
+     * @see #remapChildren(java.util.Map)
+     */
+    public BeanUnmarshaller copy() throws Exception {
+        BeanUnmarshaller copy = new BeanUnmarshaller(beanClass, configuration);
+        copy.listTypeElementNames.addAll(listTypeElementNames);
+        copy.elementName2PropertyName.putAll(elementName2PropertyName);
+        copy.attributeName2PropertyName.putAll(attributeName2PropertyName);
+        copy.attributeName2Unmarshaller.putAll(attributeName2Unmarshaller);
+        copy.localName2Unmarshaller.putAll(localName2Unmarshaller);
+        copy.propertyName2ArrayComponentType.putAll(propertyName2ArrayComponentType);
+        copy.textContentPropertyName = textContentPropertyName;
+        copy.textContentStringTable = textContentStringTable;
+        copy.ignoredAttributeNames.addAll(ignoredAttributeNames);
+        copy.ignoredElementNames.addAll(ignoredElementNames);
+        copy.elementRefBindings.addAll(elementRefBindings);
+
+        return copy;
+    }
+
+    /**
+     * @param original2Copy copies to point to instead of their originals
+     */
+    public void remapChildren(Map<Unmarshaller<?>, Unmarshaller<?>> original2Copy) {
+        for (Entry<String, Unmarshaller<Element>> entry : localName2Unmarshaller.entrySet()) {
+            entry.setValue(remap(entry.getValue(), original2Copy));
+        }
+    }
+
+    /**
+     * Bind global elements that have become compatible with this class'
+     * {@link javax.xml.bind.annotation.XmlElementRef} properties.
+     *
+     * @param unmarshallerProvider should only offer the global elements not yet bound
+     */
+    public void addElementRefs(ElementUnmarshallerProvider unmarshallerProvider) {
+        for (Binding binding : elementRefBindings) {
+            addElementRef(binding, unmarshallerProvider);
         }
-        return beanHandler.postProcess(bean);
+    }
+
+    /**
+     * @see #remapChildren(java.util.Map)
+     */
+    static Unmarshaller<Element> remap(Unmarshaller<Element> unmarshaller, Map<Unmarshaller<?>, Unmarshaller<?>> original2Copy) {
+        Unmarshaller<Element> copy = (Unmarshaller<Element>) original2Copy.get(unmarshaller);
+        if (copy != null) {
+            return copy;
+        }
+        if (unmarshaller instanceof ElementWrapperUnmarshaller) {
+            copy = ((ElementWrapperUnmarshaller) unmarshaller).remap(original2Copy);
+        } else if (unmarshaller instanceof DeferringUnmarshaller) {
+            copy = ((DeferringUnmarshaller) unmarshaller).remap(original2Copy);
+        } else if (unmarshaller instanceof XmlAdapterUnmarshaller) {
+            copy = ((XmlAdapterUnmarshaller<Element>) unmarshaller).remap(original2Copy);
+        } else {
+            // Not a bean
+            return unmarshaller;
+        }
+        original2Copy.put(unmarshaller, copy);
+
+        return copy;
+    }
+
+    /**
+     * @see #project(java.util.Set)
+     */
+    static Unmarshaller<Element> project(Unmarshaller<Element> unmarshaller, Set<String> propertyPaths) throws Exception {
+        if (unmarshaller instanceof BeanUnmarshaller) {
+            return ((BeanUnmarshaller) unmarshaller).project(propertyPaths);
+        }
+        if (unmarshaller instanceof ElementWrapperUnmarshaller) {
+            return ((ElementWrapperUnmarshaller) unmarshaller).project(propertyPaths);
+        }
+        if (unmarshaller instanceof DeferringUnmarshaller) {
+            return ((DeferringUnmarshaller) unmarshaller).project(propertyPaths);
+        }
+        // Not a bean, or a value that needs to be complete e.g. XmlAdapter input
+        return unmarshaller;
     }
 
     private boolean isNamespaceDeclaration(Attr attr) {
@@ -253,17 +435,183 @@ class BeanUnmarshaller implements InitializableElementUnmarshaller {
         return fullName.equals("xmlns") || fullName.startsWith("xmlns:");
     }
 
-    private static final class PropertyValueMap extends LinkedHashMap<String, Object> {
+    /**
+     * Bean being unmarshalled: attributes are set on creation, and child elements are handed out one by one. For a
+     * class bound through its constructor, all values are collected first and the bean is only created on completion,
+     * unless the bean handler cannot do that, in which case it is left to create & populate the bean as usual.
+     */
+    private final class BeanFrame implements Frame {
+
+        private Element element;
+        private BeanHandler beanHandler;
+        private Object bean;
+        private PropertyValueMap propertyName2PropertyValue = new PropertyValueMap();
+        private ElementText text;
+        /**
+         * {@code null} if no child node has been looked at yet.
+         */
+        private Node lastItem = null;
+        private Element childElement;
+        private Unmarshaller<Element> childUnmarshaller;
+        /**
+         * {@code null} if the bean will not be interned.
+         */
+        private Map<String, Object> boundValues;
+        private boolean constructorBound;
+        private boolean childrenComplete;
+
+        public BeanFrame(Element element, BeanHandler beanHandler, boolean childrenComplete) throws Exception {
+            this.element = element;
+            this.beanHandler = beanHandler;
+            this.childrenComplete = childrenComplete;
+            this.constructorBound = constructorBinding != null && beanHandler instanceof ConstructorBindingBeanHandler;
+            if (!constructorBound) {
+                this.bean = beanHandler.createBean(beanClass);
+            }
+            // Other bean handlers may produce bean definitions, or reuse beans
+            this.boundValues = valueTable != null && beanHandler instanceof JaxbeanUnmarshaller.ObjectBeanHandler
+                    ? new HashMap<String, Object>()
+                    : null;
+            this.text = textContentPropertyName != null ? new ElementText() : null;
+
+            NamedNodeMap attributes = element.getAttributes();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                Attr attr = (Attr) attributes.item(i);
+                if (isNamespaceDeclaration(attr)) {
+                    continue;
+                }
+                String attributeName = attr.getName();
+                Unmarshaller<Attr> unmarshaller = attributeName2Unmarshaller.get(attributeName);
+                if (unmarshaller == null) {
+                    skipUnmapped("attribute", attributeName, ignoredAttributeNames);
+                    continue;
+                }
 
-        public void add(String propertyName, Object value) {
-            List<Object> valueList = (List) get(propertyName);
+                String propertyName = attributeName2PropertyName.get(attributeName);
+                Object propertyValue = unmarshaller.unmarshal(attr, beanHandler);
 
-            if (valueList == null) {
-                valueList = new ArrayList<Object>();
-                put(propertyName, valueList);
+                if (constructorBound) {
+                    propertyName2PropertyValue.put(propertyName, propertyValue);
+                } else {
+                    beanHandler.setBeanProperty(bean, propertyName, propertyValue);
+                }
+                if (boundValues != null) {
+                    boundValues.put(propertyName, propertyValue);
+                }
             }
+        }
 
-            valueList.add(value);
+        /**
+         * Resumes from the last child node looked at, so children appended to the element afterwards (see
+         * {@link PipelinedUnmarshaller}) are still handed out.
+         */
+        @Override
+        public Element nextChild() {
+            for (Node item = followingItem(); item != null; item = followingItem()) {
+                lastItem = item;
+
+                if (text != null) {
+                    text.add(item);
+                }
+                if (item.getNodeType() != Node.ELEMENT_NODE) {
+                    continue;
+                }
+                String localName = item.getLocalName();
+                Unmarshaller<Element> unmarshaller = localName2Unmarshaller.get(localName);
+                if (unmarshaller == null) {
+                    skipUnmapped("element", localName, ignoredElementNames);
+                    continue;
+                }
+                childElement = (Element) item;
+                childUnmarshaller = unmarshaller;
+
+                return childElement;
+            }
+            return null;
+        }
+
+        private Node followingItem() {
+            return lastItem != null ? lastItem.getNextSibling() : element.getFirstChild();
+        }
+
+        @Override
+        public Unmarshaller<Element> getChildUnmarshaller() {
+            return childUnmarshaller;
+        }
+
+        @Override
+        public void accept(Object childInstance) {
+            String localName = childElement.getLocalName();
+            String propertyName = elementName2PropertyName.get(localName);
+            if (listTypeElementNames.contains(localName)) {
+                if (!propertyName2PropertyValue.containsList(propertyName)) {
+                    List<Object> valueList = ArrayBuilder.createList(
+                            beanHandler,
+                            propertyName2ArrayComponentType.get(propertyName),
+                            childrenComplete ? countElementsOf(propertyName, childElement) : DEFAULT_LIST_SIZE);
+                    propertyName2PropertyValue.putList(propertyName, valueList);
+                }
+                propertyName2PropertyValue.add(propertyName, childInstance);
+            } else {
+                propertyName2PropertyValue.put(propertyName, childInstance);
+            }
+        }
+
+        @Override
+        public Object complete() throws Exception {
+            if (boundValues != null) {
+                // Lists are compared by content, and stay as they are from here on
+                boundValues.putAll(propertyName2PropertyValue);
+            }
+
+            String textContent = null;
+            if (textContentPropertyName != null) {
+                textContent = text.isComplete() ? text.toString() : element.getTextContent();
+                if (textContentStringTable != null) {
+                    textContent = textContentStringTable.intern(textContent);
+                }
+                if (boundValues != null) {
+                    boundValues.put(textContentPropertyName, textContent);
+                }
+            }
+
+            if (constructorBound) {
+                Map<String, Object> propertyName2Value = propertyName2PropertyValue.postProcessLists(beanHandler);
+                if (textContentPropertyName != null) {
+                    propertyName2Value.put(textContentPropertyName, textContent);
+                }
+                bean = ((ConstructorBindingBeanHandler) beanHandler).createBean(
+                        constructorBinding.constructor,
+                        constructorBinding.toArguments(propertyName2Value));
+            } else {
+                propertyName2PropertyValue.setTo(bean, beanHandler);
+                if (textContentPropertyName != null) {
+                    beanHandler.setBeanProperty(bean, textContentPropertyName, textContent);
+                }
+            }
+            Object result = beanHandler.postProcess(bean);
+            if (boundValues != null) {
+                result = valueTable.intern(beanClass, boundValues, result);
+            }
+            return result;
+        }
+    }
+
+    private static final class PropertyValueMap extends LinkedHashMap<String, Object> {
+
+        private Set<String> listPropertyNames = new HashSet<String>();
+
+        public boolean containsList(String propertyName) {
+            return listPropertyNames.contains(propertyName);
+        }
+
+        public void putList(String propertyName, List<Object> valueList) {
+            listPropertyNames.add(propertyName);
+            put(propertyName, valueList);
+        }
+
+        public void add(String propertyName, Object value) {
+            ((List) get(propertyName)).add(value);
         }
 
         public void setTo(Object bean, BeanHandler beanHandler) {
@@ -271,11 +619,22 @@ class BeanUnmarshaller implements InitializableElementUnmarshaller {
                 String propertyName = entry.getKey();
                 Object propertyValue = entry.getValue();
 
-                if (propertyValue instanceof List) {
+                if (listPropertyNames.contains(propertyName)) {
                     propertyValue = beanHandler.postProcessList((List) propertyValue);
                 }
                 beanHandler.setBeanProperty(bean, propertyName, propertyValue);
             }
         }
+
+        /**
+         * @return copy with the lists post-processed
+         */
+        public Map<String, Object> postProcessLists(BeanHandler beanHandler) {
+            Map<String, Object> propertyName2Value = new LinkedHashMap<String, Object>(this);
+            for (String propertyName : listPropertyNames) {
+                propertyName2Value.put(propertyName, beanHandler.postProcessList((List) get(propertyName)));
+            }
+            return propertyName2Value;
+        }
     }
 }
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.lang.ref.SoftReference;
+import java.lang.reflect.AccessibleObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementRef;
+import javax.xml.bind.annotation.XmlElements;
+import javax.xml.bind.annotation.XmlValue;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+
+/**
+ * Annotated members of a class (and its superclasses), found & resolved once per class for the whole process and
+ * shared by all unmarshaller instances; a subclass reuses its superclass' metadata instead of walking it again.
+ * Each instance still builds its own {@link BeanUnmarshaller}s from it, so their global elements & configuration stay
+ * independent.
+ * <p>
+ * Held weakly by class, and softly by value (the metadata references the class through its members), so classes can
+ * still be unloaded.
+ *
+ * @author yihtserns
+ */
+final class BindingMetadata {
+
+    private static final Map<Class<?>, SoftReference<BindingMetadata>> type2Metadata
+            = new WeakHashMap<Class<?>, SoftReference<BindingMetadata>>();
+    private List<Binding> bindings = new ArrayList<Binding>();
+    private ConstructorBinding constructorBinding;
+
+    private BindingMetadata(Class<?> beanClass) {
+        XmlAccessorType xmlAccessorType = beanClass.getAnnotation(XmlAccessorType.class);
+        PropertyResolver resolver = getResolverFor(xmlAccessorType);
+        for (AccessibleObject accObj : resolver.getDirectMembers(beanClass)) {
+            if (accObj.isAnnotationPresent(XmlAttribute.class)) {
+                bindings.add(new Binding(Kind.ATTRIBUTE, accObj, resolver, null));
+            } else if (accObj.isAnnotationPresent(XmlElement.class)) {
+                XmlElement[] xmlElements = {accObj.getAnnotation(XmlElement.class)};
+                bindings.add(new Binding(Kind.ELEMENTS, accObj, resolver, xmlElements));
+            } else if (accObj.isAnnotationPresent(XmlElements.class)) {
+                XmlElements xmlElements = accObj.getAnnotation(XmlElements.class);
+                bindings.add(new Binding(Kind.ELEMENTS, accObj, resolver, xmlElements.value()));
+            } else if (accObj.isAnnotationPresent(XmlElementRef.class)) {
+                bindings.add(new Binding(Kind.ELEMENT_REF, accObj, resolver, null));
+            } else if (accObj.isAnnotationPresent(XmlValue.class)) {
+                bindings.add(new Binding(Kind.VALUE, accObj, resolver, null));
+            }
+        }
+
+        Class<?> superclass = beanClass.getSuperclass();
+        if (superclass != Object.class) {
+            bindings.addAll(of(superclass).getBindings());
+        }
+        bindings = Collections.unmodifiableList(bindings);
+        constructorBinding = ConstructorBinding.of(beanClass);
+    }
+
+    public static BindingMetadata of(Class<?> beanClass) {
+        BindingMetadata metadata;
+        synchronized (type2Metadata) {
+            SoftReference<BindingMetadata> reference = type2Metadata.get(beanClass);
+            metadata = reference != null ? reference.get() : null;
+        }
+        if (metadata != null) {
+            return metadata;
+        }
+
+        // Worst case another thread finds the same members concurrently
+        metadata = new BindingMetadata(beanClass);
+        synchronized (type2Metadata) {
+            type2Metadata.put(beanClass, new SoftReference<BindingMetadata>(metadata));
+        }
+        return metadata;
+    }
+
+    public List<Binding> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * @return {@code null} if the class is bound property by property
+     */
+    public ConstructorBinding getConstructorBinding() {
+        return constructorBinding;
+    }
+
+    private static PropertyResolver getResolverFor(XmlAccessorType xmlAccessorType) throws UnsupportedOperationException {
+        switch (xmlAccessorType.value()) {
+            case FIELD:
+                return PropertyResolver.FIELD;
+            case PROPERTY:
+                return PropertyResolver.METHOD;
+            default:
+                throw new UnsupportedOperationException("XML Access Type not supported yet: " + xmlAccessorType.value());
+        }
+    }
+
+    enum Kind {
+
+        ATTRIBUTE, ELEMENTS, ELEMENT_REF, VALUE
+    }
+
+    /**
+     * Annotated member, with everything the unmarshaller needs to know about its property already resolved.
+     */
+    static final class Binding {
+
+        final Kind kind;
+        final AccessibleObject accObj;
+        final String propertyName;
+        /**
+         * Type of the property, or of its items if it is a list/array, without any {@link Deferred} wrapper.
+         */
+        final Class<?> componentType;
+        final boolean listType;
+        final boolean arrayType;
+        final boolean deferredType;
+        /**
+         * {@code null} if there is no {@link XmlJavaTypeAdapter}.
+         */
+        final Class<? extends XmlAdapter> adapterClass;
+        /**
+         * Only for {@link Kind#ELEMENTS}.
+         */
+        final XmlElement[] xmlElements;
+
+        private <T extends AccessibleObject> Binding(
+                Kind kind,
+                T accObj,
+                PropertyResolver<T> resolver,
+                XmlElement[] xmlElements) {
+            this.kind = kind;
+            this.accObj = accObj;
+            this.propertyName = resolver.getPropertyName(accObj);
+            this.componentType = resolver.getComponentType(accObj);
+            this.listType = resolver.isListType(accObj);
+            this.arrayType = resolver.isArrayType(accObj);
+            this.deferredType = resolver.isDeferredType(accObj);
+            XmlJavaTypeAdapter xmlJavaTypeAdapter = accObj.getAnnotation(XmlJavaTypeAdapter.class);
+            this.adapterClass = xmlJavaTypeAdapter != null ? xmlJavaTypeAdapter.value() : null;
+            this.xmlElements = xmlElements;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.w3c.dom.Element;
+
+/**
+ * Unmarshaller for documents that are often byte-identical, e.g. heartbeats, which remembers the most recently used
+ * documents by content (and bean handler) so they do not need to be parsed again.
+ *
+ * @author yihtserns
+ */
+public final class CachingUnmarshaller {
+
+    private JaxbeanUnmarshaller unmarshaller;
+    private Mode mode;
+    private Map<Key, Object> key2Cached;
+
+    /**
+     * @param maxSize maximum number of distinct documents remembered, least recently used ones are evicted first
+     */
+    public CachingUnmarshaller(JaxbeanUnmarshaller unmarshaller, final int maxSize, Mode mode) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.unmarshaller = unmarshaller;
+        this.mode = mode;
+        this.key2Cached = new LinkedHashMap<Key, Object>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public Object unmarshal(byte[] xml) throws Exception {
+        return unmarshal(xml, unmarshaller.getObjectBeanHandler());
+    }
+
+    public Object unmarshal(byte[] xml, BeanHandler beanHandler) throws Exception {
+        Key key = new Key(xml, beanHandler);
+        Object cached;
+        synchronized (key2Cached) {
+            cached = key2Cached.get(key);
+        }
+        if (cached == null) {
+            Element element = Documents.parse(new ByteArrayInputStream(xml));
+            cached = mode == Mode.SHARE_RESULT ? unmarshaller.unmarshal(element, beanHandler) : element;
+
+            synchronized (key2Cached) {
+                key2Cached.put(key.withOwnCopy(), cached);
+            }
+        }
+        if (mode == Mode.SHARE_RESULT) {
+            return cached;
+        }
+
+        Element element = (Element) cached;
+        // DOM implementations are not thread-safe even for reads
+        synchronized (element.getOwnerDocument()) {
+            return unmarshaller.unmarshal(element, beanHandler);
+        }
+    }
+
+    public enum Mode {
+
+        /**
+         * Return the same result for identical documents unmarshalled with the same bean handler, which should
+         * therefore be treated as immutable.
+         */
+        SHARE_RESULT,
+        /**
+         * Only skip parsing: unmarshal a new result from the cached DOM every time.
+         */
+        REBIND_RESULT
+    }
+
+    private static final class Key {
+
+        private byte[] xml;
+        private BeanHandler beanHandler;
+        private int hash;
+
+        public Key(byte[] xml, BeanHandler beanHandler) {
+            this(xml, beanHandler, 31 * Arrays.hashCode(xml) + System.identityHashCode(beanHandler));
+        }
+
+        private Key(byte[] xml, BeanHandler beanHandler, int hash) {
+            this.xml = xml;
+            this.beanHandler = beanHandler;
+            this.hash = hash;
+        }
+
+        /**
+         * @return key that is unaffected by later changes to the caller's array
+         */
+        public Key withOwnCopy() {
+            return new Key(xml.clone(), beanHandler, hash);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash == other.hash
+                    && beanHandler == other.beanHandler
+                    && Arrays.equals(xml, other.xml);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
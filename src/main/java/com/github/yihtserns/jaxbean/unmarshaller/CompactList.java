@@ -0,0 +1,77 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * List that items are added into, then {@link #seal() sealed} to become immutable as-is: one object over an
+ * exactly-sized array, so a long-lived graph pays neither spare capacity nor a copy.
+ *
+ * @see Configuration#compactLists()
+ * @author yihtserns
+ */
+final class CompactList extends AbstractList<Object> implements RandomAccess {
+
+    private Object[] array;
+    private int size = 0;
+    private boolean sealed = false;
+
+    public CompactList(int expectedSize) {
+        this.array = new Object[expectedSize];
+    }
+
+    @Override
+    public boolean add(Object value) {
+        if (sealed) {
+            throw new UnsupportedOperationException("List is immutable");
+        }
+        if (size == array.length) {
+            array = Arrays.copyOf(array, Math.max(size * 2, 1));
+        }
+        array[size++] = value;
+        return true;
+    }
+
+    /**
+     * Only copies the array if fewer items than expected were added.
+     *
+     * @return this
+     */
+    public CompactList seal() {
+        if (size != array.length) {
+            array = Arrays.copyOf(array, size);
+        }
+        sealed = true;
+
+        return this;
+    }
+
+    @Override
+    public Object get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return array[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
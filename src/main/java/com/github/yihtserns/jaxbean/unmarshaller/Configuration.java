@@ -0,0 +1,200 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+/**
+ * Options for {@link JaxbeanUnmarshaller#newInstance(Configuration, java.lang.Class...)}.
+ * <p>
+ * Should not be modified after being used to create an unmarshaller.
+ *
+ * @author yihtserns
+ */
+public final class Configuration {
+
+    private static final int DEFAULT_STRING_TABLE_SIZE = 1024;
+    private static final int DEFAULT_VALUE_TABLE_SIZE = 1024;
+    private static final int DEFAULT_PROJECTION_CACHE_SIZE = 64;
+    private int stringTableSize = DEFAULT_STRING_TABLE_SIZE;
+    private int valueTableSize = DEFAULT_VALUE_TABLE_SIZE;
+    private int projectionCacheSize = DEFAULT_PROJECTION_CACHE_SIZE;
+    private boolean deduplicateAllStrings = false;
+    private Map<Class<?>, Set<String>> type2DeduplicatedPropertyNames = new HashMap<Class<?>, Set<String>>();
+    private StringTable stringTable;
+    private Set<Class<?>> valueTypes = new HashSet<Class<?>>();
+    private ValueTable valueTable;
+    private boolean ignoreUnmappedContent = false;
+    private boolean unmarshalIteratively = false;
+    private boolean compactLists = false;
+
+    /**
+     * Make identical attribute values & text contents share one {@code String} instance.
+     */
+    public Configuration deduplicateStrings() {
+        this.deduplicateAllStrings = true;
+        return this;
+    }
+
+    /**
+     * Make identical values of the given property share one {@code String} instance.
+     *
+     * @param beanClass class (or superclass of the classes) owning the property
+     * @param propertyName name of the attribute/element/value property
+     */
+    public Configuration deduplicateStrings(Class<?> beanClass, String propertyName) {
+        Set<String> propertyNames = type2DeduplicatedPropertyNames.get(beanClass);
+        if (propertyNames == null) {
+            propertyNames = new HashSet<String>();
+            type2DeduplicatedPropertyNames.put(beanClass, propertyNames);
+        }
+        propertyNames.add(propertyName);
+
+        return this;
+    }
+
+    /**
+     * @param stringTableSize maximum number of distinct strings remembered for deduplication (default: 1024)
+     */
+    public Configuration stringTableSize(int stringTableSize) {
+        if (stringTableSize <= 0) {
+            throw new IllegalArgumentException("String table size must be positive: " + stringTableSize);
+        }
+        this.stringTableSize = stringTableSize;
+        return this;
+    }
+
+    /**
+     * Make beans of the given classes (or their subclasses) that are bound with equal values share one instance,
+     * when unmarshalled with the default bean handler. Such beans should therefore be treated as immutable.
+     * <p>
+     * Bound values are compared using {@code equals}, so nested beans only count as equal if they are the same
+     * instance (e.g. because they are interned too), or their class implements {@code equals}.
+     *
+     * @param valueTypes classes whose instances are identified by their values alone
+     */
+    public Configuration internValues(Class<?>... valueTypes) {
+        this.valueTypes.addAll(Arrays.asList(valueTypes));
+        return this;
+    }
+
+    /**
+     * @param valueTableSize maximum number of distinct value beans remembered for interning (default: 1024)
+     */
+    public Configuration valueTableSize(int valueTableSize) {
+        if (valueTableSize <= 0) {
+            throw new IllegalArgumentException("Value table size must be positive: " + valueTableSize);
+        }
+        this.valueTableSize = valueTableSize;
+        return this;
+    }
+
+    /**
+     * @param projectionCacheSize maximum number of distinct sets of property paths whose pruned bindings are kept for
+     * {@link JaxbeanUnmarshaller#unmarshal(org.w3c.dom.Element, java.util.Set)}, least recently used ones are evicted
+     * first (default: 64)
+     */
+    public Configuration projectionCacheSize(int projectionCacheSize) {
+        if (projectionCacheSize <= 0) {
+            throw new IllegalArgumentException("Projection cache size must be positive: " + projectionCacheSize);
+        }
+        this.projectionCacheSize = projectionCacheSize;
+        return this;
+    }
+
+    /**
+     * Skip attributes & elements (including their whole subtree) that are not mapped to any property, instead of
+     * failing.
+     */
+    public Configuration ignoreUnmappedContent() {
+        this.ignoreUnmappedContent = true;
+        return this;
+    }
+
+    /**
+     * Keep track of nested elements with an explicit stack instead of recursion, so very deep documents do not
+     * overflow the thread's stack. Results are the same either way.
+     */
+    public Configuration unmarshalIteratively() {
+        this.unmarshalIteratively = true;
+        return this;
+    }
+
+    /**
+     * Have {@link JaxbeanUnmarshaller#unmarshal(org.w3c.dom.Element)} finish list properties as immutable lists
+     * without spare capacity, for object graphs that are kept around for long.
+     */
+    public Configuration compactLists() {
+        this.compactLists = true;
+        return this;
+    }
+
+    int getProjectionCacheSize() {
+        return projectionCacheSize;
+    }
+
+    boolean isListCompacted() {
+        return compactLists;
+    }
+
+    boolean isUnmarshalledIteratively() {
+        return unmarshalIteratively;
+    }
+
+    boolean isUnmappedContentIgnored() {
+        return ignoreUnmappedContent;
+    }
+
+    boolean isStringDeduplicated(Class<?> beanClass, String propertyName) {
+        if (deduplicateAllStrings) {
+            return true;
+        }
+        for (Entry<Class<?>, Set<String>> entry : type2DeduplicatedPropertyNames.entrySet()) {
+            if (entry.getKey().isAssignableFrom(beanClass) && entry.getValue().contains(propertyName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isValueInterned(Class<?> beanClass) {
+        for (Class<?> valueType : valueTypes) {
+            if (valueType.isAssignableFrom(beanClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    synchronized ValueTable getValueTable() {
+        if (valueTable == null) {
+            valueTable = new ValueTable(valueTableSize);
+        }
+        return valueTable;
+    }
+
+    synchronized StringTable getStringTable() {
+        if (stringTable == null) {
+            stringTable = new StringTable(stringTableSize);
+        }
+        return stringTable;
+    }
+}
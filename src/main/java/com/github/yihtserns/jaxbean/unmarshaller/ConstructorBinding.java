@@ -0,0 +1,137 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.beans.ConstructorProperties;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import org.springframework.beans.SimpleTypeConverter;
+import org.springframework.core.MethodParameter;
+
+/**
+ * Constructor that takes all bound property values at once, for classes that cannot be bound property by property:
+ * a record's canonical constructor, or a constructor annotated with {@link ConstructorProperties} in a class without
+ * a public no-arg constructor (a class that has both, e.g. one generated by Lombok, keeps being bound through its
+ * setters).
+ *
+ * @author yihtserns
+ */
+final class ConstructorBinding {
+
+    private static final ThreadLocal<SimpleTypeConverter> TYPE_CONVERTER = new ThreadLocal<SimpleTypeConverter>() {
+
+        @Override
+        protected SimpleTypeConverter initialValue() {
+            return new SimpleTypeConverter();
+        }
+    };
+    final Constructor<?> constructor;
+    private final String[] propertyNames;
+
+    private ConstructorBinding(Constructor<?> constructor, String[] propertyNames) {
+        constructor.setAccessible(true);
+
+        this.constructor = constructor;
+        this.propertyNames = propertyNames;
+    }
+
+    /**
+     * @return {@code null} if the class should be bound property by property
+     */
+    public static ConstructorBinding of(Class<?> beanClass) {
+        ConstructorBinding recordBinding = ofRecord(beanClass);
+        if (recordBinding != null) {
+            return recordBinding;
+        }
+
+        Constructor<?> annotatedConstructor = null;
+        for (Constructor<?> constructor : beanClass.getDeclaredConstructors()) {
+            if (constructor.getParameterTypes().length == 0 && Modifier.isPublic(constructor.getModifiers())) {
+                return null;
+            }
+            if (!constructor.isAnnotationPresent(ConstructorProperties.class)) {
+                continue;
+            }
+            if (annotatedConstructor == null
+                    || constructor.getParameterTypes().length > annotatedConstructor.getParameterTypes().length) {
+                annotatedConstructor = constructor;
+            }
+        }
+        if (annotatedConstructor == null) {
+            return null;
+        }
+        return new ConstructorBinding(
+                annotatedConstructor,
+                annotatedConstructor.getAnnotation(ConstructorProperties.class).value());
+    }
+
+    /**
+     * Looked up reflectively, as records are newer than the Java version this library is compiled for.
+     */
+    private static ConstructorBinding ofRecord(Class<?> beanClass) {
+        Method isRecord;
+        try {
+            isRecord = Class.class.getMethod("isRecord");
+        } catch (NoSuchMethodException ex) {
+            return null;
+        }
+
+        try {
+            if (!(Boolean) isRecord.invoke(beanClass)) {
+                return null;
+            }
+
+            Object[] components = (Object[]) Class.class.getMethod("getRecordComponents").invoke(beanClass);
+            String[] propertyNames = new String[components.length];
+            Class<?>[] parameterTypes = new Class<?>[components.length];
+            for (int i = 0; i < components.length; i++) {
+                Class<?> componentClass = components[i].getClass();
+                propertyNames[i] = (String) componentClass.getMethod("getName").invoke(components[i]);
+                parameterTypes[i] = (Class<?>) componentClass.getMethod("getType").invoke(components[i]);
+            }
+            return new ConstructorBinding(beanClass.getDeclaredConstructor(parameterTypes), propertyNames);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Cannot resolve canonical constructor of record " + beanClass.getName(), ex);
+        }
+    }
+
+    /**
+     * @param propertyName2Value bound property values, which are converted to the constructor's parameter types if
+     * necessary
+     * @return constructor arguments, using the parameter type's default for properties that were not bound
+     */
+    public Object[] toArguments(Map<String, Object> propertyName2Value) {
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        SimpleTypeConverter typeConverter = TYPE_CONVERTER.get();
+
+        Object[] arguments = new Object[propertyNames.length];
+        for (int i = 0; i < propertyNames.length; i++) {
+            Object value = propertyName2Value.get(propertyNames[i]);
+            if (value == null) {
+                arguments[i] = parameterTypes[i].isPrimitive() ? Array.get(Array.newInstance(parameterTypes[i], 1), 0) : null;
+            } else {
+                arguments[i] = typeConverter.convertIfNecessary(
+                        value,
+                        parameterTypes[i],
+                        new MethodParameter(constructor, i));
+            }
+        }
+        return arguments;
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Bean handler that can create beans of classes bound through their constructor.
+ *
+ * @see ConstructorBinding
+ * @author yihtserns
+ */
+interface ConstructorBindingBeanHandler {
+
+    /**
+     * @param arguments already converted to the constructor's parameter types
+     * @return bean, to be passed to {@code postProcess} like the ones from {@code createBean(Class)}
+     */
+    Object createBean(Constructor<?> constructor, Object[] arguments) throws Exception;
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import org.w3c.dom.Element;
+
+/**
+ * Property type for a child that should only be unmarshalled when first needed, e.g.
+ * <pre>
+ * &#64;XmlElement
+ * private Deferred&lt;Child&gt; child;
+ * &#64;XmlElement
+ * private List&lt;Deferred&lt;Child&gt;&gt; children;
+ * </pre>
+ * Until then, the child's element (and so its whole DOM document) is retained.
+ * <p>
+ * Meant for plain object unmarshalling - other {@link BeanHandler}s would get the deferred value as-is.
+ *
+ * @author yihtserns
+ */
+public final class Deferred<T> {
+
+    private volatile boolean resolved = false;
+    private T value;
+    private Element element;
+    private Unmarshaller<Element> unmarshaller;
+    private BeanHandler beanHandler;
+    private Configuration configuration;
+
+    Deferred(Element element, Unmarshaller<Element> unmarshaller, BeanHandler beanHandler, Configuration configuration) {
+        this.element = element;
+        this.unmarshaller = unmarshaller;
+        this.beanHandler = beanHandler;
+        this.configuration = configuration;
+    }
+
+    /**
+     * Unmarshal the retained element on first call, and return the same result afterwards. Thread-safe.
+     *
+     * @throws IllegalStateException if the element could not be unmarshalled
+     */
+    public T get() {
+        if (!resolved) {
+            resolve();
+        }
+        return value;
+    }
+
+    private synchronized void resolve() {
+        if (resolved) {
+            return;
+        }
+        try {
+            // DOM implementations are not thread-safe even for reads
+            synchronized (element.getOwnerDocument()) {
+                value = (T) JaxbeanUnmarshaller.unmarshalWith(configuration, unmarshaller, element, beanHandler);
+            }
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unable to unmarshal deferred element: " + element.getLocalName(), ex);
+        }
+        element = null;
+        unmarshaller = null;
+        beanHandler = null;
+        configuration = null;
+        resolved = true;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import java.util.Map;
+import java.util.Set;
+import org.w3c.dom.Element;
+
+/**
+ *
+ * @author yihtserns
+ */
+class DeferringUnmarshaller implements Unmarshaller<Element> {
+
+    private Unmarshaller<Element> delegate;
+    private Configuration configuration;
+
+    public DeferringUnmarshaller(Unmarshaller<Element> delegate, Configuration configuration) {
+        this.delegate = delegate;
+        this.configuration = configuration;
+    }
+
+    /**
+     * A {@link RunScopedBeanHandler} is swapped for the plain object bean handler, since its state will have moved on
+     * by the time the deferred value is resolved.
+     */
+    public Object unmarshal(Element element, BeanHandler beanHandler) {
+        if (beanHandler instanceof RunScopedBeanHandler) {
+            beanHandler = JaxbeanUnmarshaller.getObjectBeanHandler(configuration);
+        }
+        return new Deferred<Object>(element, delegate, beanHandler, configuration);
+    }
+
+    /**
+     * @see BeanUnmarshaller#remap(Unmarshaller, java.util.Map)
+     */
+    public DeferringUnmarshaller remap(Map<Unmarshaller<?>, Unmarshaller<?>> original2Copy) {
+        return new DeferringUnmarshaller(BeanUnmarshaller.remap(delegate, original2Copy), configuration);
+    }
+
+    /**
+     * @see BeanUnmarshaller#project(java.util.Set)
+     */
+    public DeferringUnmarshaller project(Set<String> propertyPaths) throws Exception {
+        return new DeferringUnmarshaller(BeanUnmarshaller.project(delegate, propertyPaths), configuration);
+    }
+}
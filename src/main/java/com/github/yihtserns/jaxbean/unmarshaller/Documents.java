@@ -0,0 +1,134 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Parses XML the way this unmarshaller needs it, i.e. namespace-aware, without loading external DTDs, resolving
+ * external entities or processing XIncludes, so an untrusted document cannot make the parser read other files or
+ * make network requests.
+ * <p>
+ * Document builders are expensive to create and not thread-safe, so a bounded number of them are pooled: a parse
+ * borrows an idle one (or creates one if there is none), and returns it afterwards unless the pool is already full.
+ *
+ * @author yihtserns
+ */
+final class Documents {
+
+    private static final String LOAD_EXTERNAL_DTD = "http://apache.org/xml/features/nonvalidating/load-external-dtd";
+    private static final String EXTERNAL_GENERAL_ENTITIES = "http://xml.org/sax/features/external-general-entities";
+    private static final String EXTERNAL_PARAMETER_ENTITIES = "http://xml.org/sax/features/external-parameter-entities";
+    private static final String[] DISABLED_FEATURES = {
+        LOAD_EXTERNAL_DTD, EXTERNAL_GENERAL_ENTITIES, EXTERNAL_PARAMETER_ENTITIES
+    };
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+    private static final BlockingQueue<DocumentBuilder> IDLE_DOCUMENT_BUILDERS
+            = new ArrayBlockingQueue<DocumentBuilder>(Runtime.getRuntime().availableProcessors() * 2);
+    private static final SAXParserFactory SAX_PARSER_FACTORY = SAXParserFactory.newInstance();
+
+    static {
+        DOCUMENT_BUILDER_FACTORY.setNamespaceAware(true);
+        DOCUMENT_BUILDER_FACTORY.setXIncludeAware(false);
+        DOCUMENT_BUILDER_FACTORY.setExpandEntityReferences(false);
+        SAX_PARSER_FACTORY.setNamespaceAware(true);
+        SAX_PARSER_FACTORY.setXIncludeAware(false);
+        for (String feature : DISABLED_FEATURES) {
+            try {
+                DOCUMENT_BUILDER_FACTORY.setFeature(feature, false);
+            } catch (Exception ex) {
+                // Not supported by this parser
+            }
+            try {
+                SAX_PARSER_FACTORY.setFeature(feature, false);
+            } catch (Exception ex) {
+                // Not supported by this parser
+            }
+        }
+    }
+
+    private Documents() {
+    }
+
+    public static Element parse(File file) throws Exception {
+        return parse(new InputSource(file.toURI().toASCIIString()));
+    }
+
+    public static Element parse(InputStream inputStream) throws Exception {
+        return parse(new InputSource(inputStream));
+    }
+
+    public static Element parse(Reader reader) throws Exception {
+        return parse(new InputSource(reader));
+    }
+
+    /**
+     * Parse as SAX events instead of into a DOM, with the same settings.
+     */
+    public static void parse(InputStream inputStream, DefaultHandler handler) throws Exception {
+        SAXParser saxParser;
+        synchronized (SAX_PARSER_FACTORY) {
+            saxParser = SAX_PARSER_FACTORY.newSAXParser();
+        }
+        saxParser.parse(inputStream, handler);
+    }
+
+    public static Document newDocument() throws Exception {
+        DocumentBuilder documentBuilder = borrowDocumentBuilder();
+        try {
+            return documentBuilder.newDocument();
+        } finally {
+            returnDocumentBuilder(documentBuilder);
+        }
+    }
+
+    private static Element parse(InputSource inputSource) throws Exception {
+        DocumentBuilder documentBuilder = borrowDocumentBuilder();
+        try {
+            return documentBuilder.parse(inputSource).getDocumentElement();
+        } finally {
+            returnDocumentBuilder(documentBuilder);
+        }
+    }
+
+    private static DocumentBuilder borrowDocumentBuilder() throws Exception {
+        DocumentBuilder documentBuilder = IDLE_DOCUMENT_BUILDERS.poll();
+        if (documentBuilder != null) {
+            return documentBuilder;
+        }
+        // Factories are not guaranteed to be thread-safe
+        synchronized (DOCUMENT_BUILDER_FACTORY) {
+            return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+        }
+    }
+
+    private static void returnDocumentBuilder(DocumentBuilder documentBuilder) {
+        documentBuilder.reset();
+        IDLE_DOCUMENT_BUILDERS.offer(documentBuilder);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.util.Arrays;
+import org.w3c.dom.CharacterData;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * Gathers the text nodes directly under an element, used instead of {@link Element#getTextContent()} so that the
+ * common single-text-node case doesn't need to walk descendants or copy anything.
+ * <p>
+ * Only complete when the element has no child element or entity reference, otherwise the caller has to fall back
+ * to {@link Element#getTextContent()}.
+ *
+ * @author yihtserns
+ */
+final class ElementText {
+
+    private String[] segments = new String[2];
+    private int segmentCount = 0;
+    private int length = 0;
+    private boolean complete = true;
+
+    public static String textOf(Element element) {
+        Node firstChild = element.getFirstChild();
+        if (firstChild == null) {
+            return "";
+        }
+        if (firstChild.getNextSibling() == null && isText(firstChild)) {
+            return ((CharacterData) firstChild).getData();
+        }
+
+        ElementText text = new ElementText();
+        for (Node child = firstChild; child != null; child = child.getNextSibling()) {
+            text.add(child);
+        }
+        return text.isComplete() ? text.toString() : element.getTextContent();
+    }
+
+    public void add(Node child) {
+        if (isText(child)) {
+            append(((CharacterData) child).getData());
+            return;
+        }
+        switch (child.getNodeType()) {
+            case Node.ELEMENT_NODE:
+            case Node.ENTITY_REFERENCE_NODE:
+                complete = false;
+                break;
+            default:
+                // Comments & processing instructions are not part of text content
+        }
+    }
+
+    private void append(String data) {
+        if (segmentCount == segments.length) {
+            segments = Arrays.copyOf(segments, segmentCount * 2);
+        }
+        segments[segmentCount++] = data;
+        length += data.length();
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public String toString() {
+        switch (segmentCount) {
+            case 0:
+                return "";
+            case 1:
+                return segments[0];
+            default:
+                StringBuilder sb = new StringBuilder(length);
+                for (int i = 0; i < segmentCount; i++) {
+                    sb.append(segments[i]);
+                }
+                String text = sb.toString();
+
+                segments[0] = text;
+                Arrays.fill(segments, 1, segmentCount, null);
+                segmentCount = 1;
+
+                return text;
+        }
+    }
+
+    private static boolean isText(Node node) {
+        short nodeType = node.getNodeType();
+        return nodeType == Node.TEXT_NODE || nodeType == Node.CDATA_SECTION_NODE;
+    }
+}
@@ -28,6 +28,6 @@ enum ElementTextContentUnmarshaller implements Unmarshaller<Element> {
 
     @Override
     public Object unmarshal(Element element, BeanHandler beanHandler) {
-        return element.getTextContent();
+        return ElementText.textOf(element);
     }
 }
@@ -15,11 +15,14 @@
  */
 package com.github.yihtserns.jaxbean.unmarshaller;
 
+import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.Frame;
+import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.FrameUnmarshaller;
 import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -28,31 +31,101 @@ import org.w3c.dom.NodeList;
  *
  * @author yihtserns
  */
-class ElementWrapperUnmarshaller implements Unmarshaller<Element> {
+class ElementWrapperUnmarshaller implements Unmarshaller<Element>, FrameUnmarshaller {
 
     private Map<String, Unmarshaller<Element>> localName2Unmarshaller = new HashMap<String, Unmarshaller<Element>>();
+    private Class<?> arrayComponentType = null;
 
     @Override
     public Object unmarshal(Element element, BeanHandler beanHandler) throws Exception {
-        List<Object> result = new ArrayList<Object>();
-        NodeList childNodes = element.getChildNodes();
-        for (int i = 0; i < childNodes.getLength(); i++) {
-            Node item = childNodes.item(i);
-            if (item.getNodeType() != Node.ELEMENT_NODE) {
-                continue;
+        Frame frame = newFrame(element, beanHandler);
+        for (Element childElement = frame.nextChild(); childElement != null; childElement = frame.nextChild()) {
+            frame.accept(frame.getChildUnmarshaller().unmarshal(childElement, beanHandler));
+        }
+        return frame.complete();
+    }
+
+    @Override
+    public Frame newFrame(Element element, final BeanHandler beanHandler) {
+        final NodeList childNodes = element.getChildNodes();
+        final List<Object> result = ArrayBuilder.createList(beanHandler, arrayComponentType, countMappedElements(childNodes));
+
+        return new Frame() {
+
+            private int index = 0;
+            private Unmarshaller<Element> childUnmarshaller;
+
+            public Element nextChild() {
+                while (index < childNodes.getLength()) {
+                    Node item = childNodes.item(index++);
+                    if (item.getNodeType() != Node.ELEMENT_NODE) {
+                        continue;
+                    }
+                    childUnmarshaller = localName2Unmarshaller.get(item.getLocalName());
+                    if (childUnmarshaller != null) {
+                        return (Element) item;
+                    }
+                }
+                return null;
+            }
+
+            public Unmarshaller<Element> getChildUnmarshaller() {
+                return childUnmarshaller;
             }
-            Element childElement = (Element) item;
-            String localName = childElement.getLocalName();
-            Unmarshaller<Element> unmarshaller = localName2Unmarshaller.get(localName);
-            if (unmarshaller != null) {
-                Object instance = unmarshaller.unmarshal(childElement, beanHandler);
+
+            public void accept(Object instance) {
                 result.add(instance);
             }
+
+            public Object complete() {
+                return beanHandler.postProcessList(result);
+            }
+        };
+    }
+
+    private int countMappedElements(NodeList childNodes) {
+        int count = 0;
+        for (int i = 0; i < childNodes.getLength(); i++) {
+            Node item = childNodes.item(i);
+            if (item.getNodeType() == Node.ELEMENT_NODE && localName2Unmarshaller.containsKey(item.getLocalName())) {
+                count++;
+            }
         }
-        return beanHandler.postProcessList(result);
+        return count;
+    }
+
+    /**
+     * @param arrayComponentType of the array property this wrapper is for
+     */
+    public void setArrayComponentType(Class<?> arrayComponentType) {
+        this.arrayComponentType = arrayComponentType;
     }
 
     public void put(String localName, Unmarshaller<Element> unmarshaller) {
         this.localName2Unmarshaller.put(localName, unmarshaller);
     }
+
+    /**
+     * @see BeanUnmarshaller#remap(Unmarshaller, java.util.Map)
+     */
+    public ElementWrapperUnmarshaller remap(Map<Unmarshaller<?>, Unmarshaller<?>> original2Copy) {
+        ElementWrapperUnmarshaller copy = new ElementWrapperUnmarshaller();
+        copy.arrayComponentType = arrayComponentType;
+        for (Entry<String, Unmarshaller<Element>> entry : localName2Unmarshaller.entrySet()) {
+            copy.put(entry.getKey(), BeanUnmarshaller.remap(entry.getValue(), original2Copy));
+        }
+        return copy;
+    }
+
+    /**
+     * @see BeanUnmarshaller#project(java.util.Set)
+     */
+    public ElementWrapperUnmarshaller project(Set<String> propertyPaths) throws Exception {
+        ElementWrapperUnmarshaller projection = new ElementWrapperUnmarshaller();
+        projection.arrayComponentType = arrayComponentType;
+        for (Entry<String, Unmarshaller<Element>> entry : localName2Unmarshaller.entrySet()) {
+            projection.put(entry.getKey(), BeanUnmarshaller.project(entry.getValue(), propertyPaths));
+        }
+        return projection;
+    }
 }
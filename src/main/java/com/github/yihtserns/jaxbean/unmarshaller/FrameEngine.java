@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.Frame;
+import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.FrameUnmarshaller;
+import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.w3c.dom.Element;
+
+/**
+ * Unmarshals using an explicit stack of {@link Frame}s instead of recursion, so the thread's stack depth does not
+ * grow with the document's depth. Produces the same result as {@link Unmarshaller#unmarshal(org.w3c.dom.Node, BeanHandler)}.
+ *
+ * @author yihtserns
+ */
+final class FrameEngine {
+
+    private FrameEngine() {
+    }
+
+    public static Object unmarshal(Unmarshaller<Element> unmarshaller, Element element, BeanHandler beanHandler) throws Exception {
+        Frame rootFrame = newFrame(unmarshaller, element, beanHandler);
+        if (rootFrame == null) {
+            return unmarshaller.unmarshal(element, beanHandler);
+        }
+
+        Deque<Frame> stack = new ArrayDeque<Frame>();
+        stack.push(rootFrame);
+        while (true) {
+            Frame frame = stack.peek();
+            Element childElement = frame.nextChild();
+            if (childElement != null) {
+                Unmarshaller<Element> childUnmarshaller = frame.getChildUnmarshaller();
+                Frame childFrame = newFrame(childUnmarshaller, childElement, beanHandler);
+                if (childFrame != null) {
+                    stack.push(childFrame);
+                } else {
+                    // Leaf, e.g. text content
+                    frame.accept(childUnmarshaller.unmarshal(childElement, beanHandler));
+                }
+                continue;
+            }
+
+            stack.pop();
+            Object value = frame.complete();
+            if (stack.isEmpty()) {
+                return value;
+            }
+            stack.peek().accept(value);
+        }
+    }
+
+    private static Frame newFrame(Unmarshaller<Element> unmarshaller, Element element, BeanHandler beanHandler) throws Exception {
+        if (unmarshaller instanceof FrameUnmarshaller) {
+            return ((FrameUnmarshaller) unmarshaller).newFrame(element, beanHandler);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import java.lang.reflect.Constructor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Object bean handler for one run of {@link IncrementalUnmarshaller}, which keeps track of the beans unmarshalled
+ * from each element by fingerprint, so the next run can reuse the ones whose elements did not change.
+ *
+ * @author yihtserns
+ */
+class IncrementalBeanHandler
+        implements BeanHandler<BeanWrapper>, ArrayBuildingBeanHandler, ConstructorBindingBeanHandler, RunScopedBeanHandler {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private Map<Long, List<Subtree>> hash2PreviousSubtrees;
+    private Map<Long, List<Subtree>> hash2Subtrees = new HashMap<Long, List<Subtree>>();
+    private Map<Element, Long> element2Hash = new IdentityHashMap<Element, Long>();
+    /**
+     * Child subtrees of the beans being unmarshalled, innermost on top, with the ones of the root's level at the
+     * bottom.
+     */
+    private Deque<List<Subtree>> pendingChildren = new ArrayDeque<List<Subtree>>();
+
+    /**
+     * @param hash2PreviousSubtrees from the previous run, entries of which will be removed once reused
+     */
+    public IncrementalBeanHandler(Map<Long, List<Subtree>> hash2PreviousSubtrees) {
+        this.hash2PreviousSubtrees = hash2PreviousSubtrees;
+        this.pendingChildren.push(new ArrayList<Subtree>());
+    }
+
+    /**
+     * @return subtree unmarshalled by the given unmarshaller from an element equal to the given one in the previous
+     * run (moved onto the given element, so the previous document is not retained), or {@code null} if there is none
+     * (left)
+     * @see #remember(Subtree)
+     */
+    public Subtree reuse(Unmarshaller<Element> unmarshaller, Element element) {
+        List<Subtree> subtrees = hash2PreviousSubtrees.get(hashOf(element));
+        if (subtrees == null) {
+            return null;
+        }
+        for (Iterator<Subtree> iterator = subtrees.iterator(); iterator.hasNext();) {
+            Subtree subtree = iterator.next();
+            if (subtree.unmarshaller != unmarshaller) {
+                continue;
+            }
+            Map<Element, Element> previous2Current = subtree.children.isEmpty()
+                    ? null
+                    : new IdentityHashMap<Element, Element>();
+            // Fingerprints can collide, so only trust the element itself
+            if (isEqual(subtree.element, element, previous2Current)) {
+                iterator.remove();
+                // Their beans are part of this one, so must not end up elsewhere too
+                for (Subtree descendant : descendantsOf(subtree)) {
+                    removeFirstIdentical(hash2PreviousSubtrees.get(descendant.hash), descendant);
+                }
+                return moveTo(subtree, element, previous2Current);
+            }
+        }
+        return null;
+    }
+
+    private static void removeFirstIdentical(List<Subtree> subtrees, Subtree subtree) {
+        if (subtrees == null) {
+            return;
+        }
+        for (Iterator<Subtree> iterator = subtrees.iterator(); iterator.hasNext();) {
+            if (iterator.next() == subtree) {
+                iterator.remove();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return copy of the subtree (and its descendants) for the given element equal to the subtree's own
+     */
+    private static Subtree moveTo(Subtree subtree, Element element, Map<Element, Element> previous2Current) {
+        Subtree movedSubtree = subtree.moveTo(element);
+        Deque<Subtree> pendingSubtrees = new ArrayDeque<Subtree>();
+        Deque<Subtree> pendingMovedSubtrees = new ArrayDeque<Subtree>();
+        pendingSubtrees.push(subtree);
+        pendingMovedSubtrees.push(movedSubtree);
+        while (!pendingSubtrees.isEmpty()) {
+            Subtree parent = pendingSubtrees.pop();
+            Subtree movedParent = pendingMovedSubtrees.pop();
+            for (Subtree child : parent.children) {
+                Subtree movedChild = child.moveTo(previous2Current.get(child.element));
+                movedParent.children.add(movedChild);
+                pendingSubtrees.push(child);
+                pendingMovedSubtrees.push(movedChild);
+            }
+        }
+        return movedSubtree;
+    }
+
+    /**
+     * Walked without recursing, so deep subtrees do not overflow the stack.
+     */
+    private static List<Subtree> descendantsOf(Subtree subtree) {
+        List<Subtree> descendants = new ArrayList<Subtree>();
+        Deque<Subtree> pending = new ArrayDeque<Subtree>(subtree.children);
+        while (!pending.isEmpty()) {
+            Subtree descendant = pending.pop();
+            descendants.add(descendant);
+            for (Subtree child : descendant.children) {
+                pending.push(child);
+            }
+        }
+        return descendants;
+    }
+
+    /**
+     * Like {@link Node#isEqualNode(Node)}, but without recursing, so deep elements do not overflow the stack.
+     *
+     * @param previous2Current if not {@code null}, gets every element of the previous subtree mapped to the current
+     * one at the same position
+     */
+    private static boolean isEqual(Element previous, Element current, Map<Element, Element> previous2Current) {
+        Deque<Node> pending = new ArrayDeque<Node>();
+        pending.push(previous);
+        pending.push(current);
+        while (!pending.isEmpty()) {
+            Node currentNode = pending.pop();
+            Node previousNode = pending.pop();
+            if (!isEqualIgnoringChildren(previousNode, currentNode)) {
+                return false;
+            }
+            if (previous2Current != null && previousNode.getNodeType() == Node.ELEMENT_NODE) {
+                previous2Current.put((Element) previousNode, (Element) currentNode);
+            }
+
+            Node previousChild = previousNode.getFirstChild();
+            Node currentChild = currentNode.getFirstChild();
+            for (; previousChild != null && currentChild != null;
+                    previousChild = previousChild.getNextSibling(), currentChild = currentChild.getNextSibling()) {
+                pending.push(previousChild);
+                pending.push(currentChild);
+            }
+            if (previousChild != currentChild) {
+                // Different number of children
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isEqualIgnoringChildren(Node previous, Node current) {
+        if (previous.getNodeType() != current.getNodeType()
+                || !equal(previous.getNodeName(), current.getNodeName())
+                || !equal(previous.getNamespaceURI(), current.getNamespaceURI())
+                || !equal(previous.getNodeValue(), current.getNodeValue())) {
+            return false;
+        }
+        NamedNodeMap previousAttributes = previous.getAttributes();
+        if (previousAttributes == null) {
+            return true;
+        }
+        NamedNodeMap currentAttributes = current.getAttributes();
+        if (previousAttributes.getLength() != currentAttributes.getLength()) {
+            return false;
+        }
+        for (int i = 0; i < previousAttributes.getLength(); i++) {
+            Node previousAttribute = previousAttributes.item(i);
+            Node currentAttribute = previousAttribute.getLocalName() != null
+                    ? currentAttributes.getNamedItemNS(previousAttribute.getNamespaceURI(), previousAttribute.getLocalName())
+                    : currentAttributes.getNamedItem(previousAttribute.getNodeName());
+            if (currentAttribute == null
+                    || !equal(previousAttribute.getNodeName(), currentAttribute.getNodeName())
+                    || !equal(previousAttribute.getNodeValue(), currentAttribute.getNodeValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equal(String previous, String current) {
+        return previous == null ? current == null : previous.equals(current);
+    }
+
+    /**
+     * To be called before unmarshalling the descendants of an element that will be {@link #remember(Unmarshaller,
+     * Element, Object) remembered}.
+     */
+    public void enter() {
+        pendingChildren.push(new ArrayList<Subtree>());
+    }
+
+    /**
+     * Remember a bean unmarshalled from the element last {@link #enter() entered}, along with its descendants.
+     */
+    public void remember(Unmarshaller<Element> unmarshaller, Element element, Object bean) {
+        List<Subtree> children = pendingChildren.pop();
+        register(new Subtree(unmarshaller, element, hashOf(element), bean, children));
+    }
+
+    /**
+     * Remember a reused subtree for the next run, along with its descendants, so a later change inside it only
+     * requires the changed part to be unmarshalled again.
+     */
+    public void remember(Subtree reusedSubtree) {
+        for (Subtree descendant : descendantsOf(reusedSubtree)) {
+            index(descendant);
+        }
+        register(reusedSubtree);
+    }
+
+    private void register(Subtree subtree) {
+        index(subtree);
+        pendingChildren.peek().add(subtree);
+    }
+
+    private void index(Subtree subtree) {
+        List<Subtree> subtrees = hash2Subtrees.get(subtree.hash);
+        if (subtrees == null) {
+            subtrees = new ArrayList<Subtree>(1);
+            hash2Subtrees.put(subtree.hash, subtrees);
+        }
+        subtrees.add(subtree);
+    }
+
+    /**
+     * @return subtrees unmarshalled in this run, to be passed to the next run
+     */
+    public Map<Long, List<Subtree>> getSubtrees() {
+        return hash2Subtrees;
+    }
+
+    /**
+     * Computed bottom-up, and once per element per run. Walks the descendants without recursing, so deep elements do
+     * not overflow the stack.
+     */
+    private Long hashOf(Element element) {
+        Long hash = element2Hash.get(element);
+        if (hash != null) {
+            return hash;
+        }
+
+        // Parents before their children, so going backwards computes every child's hash before its parent's
+        List<Element> unhashed = new ArrayList<Element>();
+        Deque<Element> pending = new ArrayDeque<Element>();
+        pending.push(element);
+        while (!pending.isEmpty()) {
+            Element unhashedElement = pending.pop();
+            unhashed.add(unhashedElement);
+            for (Node child = unhashedElement.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child.getNodeType() == Node.ELEMENT_NODE && !element2Hash.containsKey(child)) {
+                    pending.push((Element) child);
+                }
+            }
+        }
+        for (int i = unhashed.size() - 1; i >= 0; i--) {
+            Element unhashedElement = unhashed.get(i);
+            element2Hash.put(unhashedElement, hashOfChildrenHashed(unhashedElement));
+        }
+        return element2Hash.get(element);
+    }
+
+    private Long hashOfChildrenHashed(Element element) {
+        long h = FNV_OFFSET_BASIS;
+        h = mix(h, element.getNamespaceURI());
+        h = mix(h, element.getLocalName());
+
+        long attributesHash = 0;
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Node attr = attributes.item(i);
+            // Attribute order is insignificant
+            attributesHash += mix(mix(mix(FNV_OFFSET_BASIS, attr.getNamespaceURI()), attr.getNodeName()), attr.getNodeValue());
+        }
+        h = mix(h, attributesHash);
+
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child.getNodeType() == Node.ELEMENT_NODE) {
+                h = mix(h, element2Hash.get(child));
+            } else {
+                h = mix(h, child.getNodeType());
+                h = mix(h, child.getNodeValue());
+            }
+        }
+
+        return h;
+    }
+
+    private static long mix(long h, String value) {
+        return mix(h, value != null ? value.hashCode() : 0);
+    }
+
+    private static long mix(long h, long value) {
+        return (h ^ value) * FNV_PRIME;
+    }
+
+    @Override
+    public BeanWrapper createBean(Class<?> beanClass) throws Exception {
+        return PropertyAccessorFactory.forBeanPropertyAccess(beanClass.newInstance());
+    }
+
+    @Override
+    public BeanWrapper createBean(Constructor<?> constructor, Object[] arguments) throws Exception {
+        return PropertyAccessorFactory.forBeanPropertyAccess(constructor.newInstance(arguments));
+    }
+
+    @Override
+    public void setBeanProperty(BeanWrapper bean, String propertyName, Object propertyValue) {
+        bean.setPropertyValue(propertyName, propertyValue);
+    }
+
+    @Override
+    public Object unmarshalWith(XmlAdapter xmlAdapter, Object from) throws Exception {
+        return xmlAdapter.unmarshal(from);
+    }
+
+    @Override
+    public Object postProcessList(List<Object> unprocessedList) {
+        return ArrayBuilder.toValue(unprocessedList);
+    }
+
+    @Override
+    public Object postProcess(BeanWrapper bean) {
+        return bean.getWrappedInstance();
+    }
+
+    static final class Subtree {
+
+        private Unmarshaller<Element> unmarshaller;
+        private Element element;
+        private Long hash;
+        private Object bean;
+        /**
+         * Subtrees of the nearest descendants that were remembered on their own.
+         */
+        private List<Subtree> children;
+
+        public Subtree(
+                Unmarshaller<Element> unmarshaller,
+                Element element,
+                Long hash,
+                Object bean,
+                List<Subtree> children) {
+            this.unmarshaller = unmarshaller;
+            this.element = element;
+            this.hash = hash;
+            this.bean = bean;
+            this.children = children;
+        }
+
+        /**
+         * @return copy for the given element, without children
+         */
+        public Subtree moveTo(Element element) {
+            return new Subtree(unmarshaller, element, hash, bean, new ArrayList<Subtree>(children.size()));
+        }
+
+        public Object getBean() {
+            return bean;
+        }
+    }
+}
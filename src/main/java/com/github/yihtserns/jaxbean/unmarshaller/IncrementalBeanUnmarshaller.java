@@ -0,0 +1,75 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.IncrementalBeanHandler.Subtree;
+import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import org.w3c.dom.Element;
+
+/**
+ * Bean unmarshaller that, when used with an {@link IncrementalBeanHandler}, returns the bean unmarshalled from an
+ * identical element in the previous run instead of unmarshalling again.
+ *
+ * @author yihtserns
+ */
+class IncrementalBeanUnmarshaller extends BeanUnmarshaller {
+
+    public IncrementalBeanUnmarshaller(Class<?> beanClass, Configuration configuration) throws Exception {
+        super(beanClass, configuration);
+    }
+
+    @Override
+    public Frame newFrame(final Element element, BeanHandler beanHandler) throws Exception {
+        if (!(beanHandler instanceof IncrementalBeanHandler)) {
+            return super.newFrame(element, beanHandler);
+        }
+        final IncrementalBeanHandler incrementalBeanHandler = (IncrementalBeanHandler) beanHandler;
+
+        final Subtree reusedSubtree = incrementalBeanHandler.reuse(this, element);
+        final Frame frame;
+        if (reusedSubtree == null) {
+            incrementalBeanHandler.enter();
+            frame = super.newFrame(element, beanHandler);
+        } else {
+            frame = null;
+        }
+        return new Frame() {
+
+            public Element nextChild() throws Exception {
+                return frame != null ? frame.nextChild() : null;
+            }
+
+            public Unmarshaller<Element> getChildUnmarshaller() {
+                return frame.getChildUnmarshaller();
+            }
+
+            public void accept(Object value) throws Exception {
+                frame.accept(value);
+            }
+
+            public Object complete() throws Exception {
+                if (reusedSubtree != null) {
+                    incrementalBeanHandler.remember(reusedSubtree);
+                    return reusedSubtree.getBean();
+                }
+                Object bean = frame.complete();
+                incrementalBeanHandler.remember(IncrementalBeanUnmarshaller.this, element, bean);
+
+                return bean;
+            }
+        };
+    }
+}
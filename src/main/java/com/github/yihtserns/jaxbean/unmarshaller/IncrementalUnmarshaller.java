@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.IncrementalBeanHandler.Subtree;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.w3c.dom.Element;
+
+/**
+ * Unmarshaller for successive revisions of a document, e.g. a reloaded configuration file: beans whose element did
+ * not change since the previous call are reused as-is, and only the changed parts (and their ancestors) are
+ * unmarshalled again.
+ * <p>
+ * The result of a call therefore shares unchanged beans with the previous result, so those beans should be treated
+ * as immutable. Also retains the last document unmarshalled.
+ *
+ * @see JaxbeanUnmarshaller#newIncrementalInstance(Configuration, java.lang.Class...)
+ * @author yihtserns
+ */
+public final class IncrementalUnmarshaller {
+
+    private JaxbeanUnmarshaller unmarshaller;
+    private Map<Long, List<Subtree>> hash2PreviousSubtrees = Collections.emptyMap();
+
+    IncrementalUnmarshaller(JaxbeanUnmarshaller unmarshaller) {
+        this.unmarshaller = unmarshaller;
+    }
+
+    public synchronized Object unmarshal(Element element) throws Exception {
+        IncrementalBeanHandler beanHandler = new IncrementalBeanHandler(hash2PreviousSubtrees);
+        Object result = unmarshaller.unmarshal(element, beanHandler);
+        hash2PreviousSubtrees = beanHandler.getSubtrees();
+
+        return result;
+    }
+}
@@ -16,16 +16,26 @@
 package com.github.yihtserns.jaxbean.unmarshaller;
 
 import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import com.github.yihtserns.jaxbean.unmarshaller.api.ListCreatingBeanHandler;
 import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.InitializableElementUnmarshaller;
 import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.ElementUnmarshallerProvider;
 import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.ElementUnmarshallerProvider.Handler;
 import java.beans.Introspector;
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 import org.springframework.beans.BeanWrapper;
@@ -39,43 +49,302 @@ import org.w3c.dom.Element;
 public class JaxbeanUnmarshaller {
 
     private Map<String, Unmarshaller<Element>> globalName2Unmarshaller;
+    private Map<Class<?>, Set<String>> type2PropertyNames;
+    private Configuration configuration;
+    private Map<Class<?>, String> globalType2Name;
+    private Map<Class<?>, InitializableElementUnmarshaller> type2Unmarshaller;
+    private Map<Set<String>, Map<String, Unmarshaller<Element>>> propertyPaths2GlobalUnmarshallers;
 
     /**
      * @see #newInstance(java.lang.Class...)
      */
-    private JaxbeanUnmarshaller(Map<String, Unmarshaller<Element>> globalName2Unmarshaller) {
-        this.globalName2Unmarshaller = globalName2Unmarshaller;
+    private JaxbeanUnmarshaller(Builder builder) {
+        this.globalName2Unmarshaller = builder.globalName2Unmarshaller;
+        this.type2PropertyNames = builder.getType2PropertyNames();
+        this.configuration = builder.configuration;
+        this.globalType2Name = builder.globalType2Name;
+        this.type2Unmarshaller = builder.type2InitializedUnmarshaller;
+
+        final int projectionCacheSize = configuration.getProjectionCacheSize();
+        this.propertyPaths2GlobalUnmarshallers = new LinkedHashMap<Set<String>, Map<String, Unmarshaller<Element>>>(
+                16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Set<String>, Map<String, Unmarshaller<Element>>> eldest) {
+                return size() > projectionCacheSize;
+            }
+        };
     }
 
     public Object unmarshal(Element element) throws Exception {
-        return unmarshal(element, ObjectBeanHandler.INSTANCE);
+        return unmarshal(element, getObjectBeanHandler());
     }
 
     public Object unmarshal(Element element, BeanHandler beanHandler) throws Exception {
+        return unmarshalUsing(globalName2Unmarshaller, element, beanHandler);
+    }
+
+    /**
+     * Parse with a pooled, namespace-aware document builder that does not load external DTDs, then unmarshal.
+     */
+    public Object unmarshal(InputStream inputStream) throws Exception {
+        return unmarshal(Documents.parse(inputStream));
+    }
+
+    /**
+     * @see #unmarshal(java.io.InputStream)
+     */
+    public Object unmarshal(Reader reader) throws Exception {
+        return unmarshal(Documents.parse(reader));
+    }
+
+    /**
+     * @return class the given element would be unmarshalled into, or {@code null} if it is not a known global element
+     */
+    public Class<?> getTypeOf(Element element) {
+        Unmarshaller<Element> unmarshaller = globalName2Unmarshaller.get(element.getLocalName());
+        if (!(unmarshaller instanceof BeanUnmarshaller)) {
+            return null;
+        }
+        return ((BeanUnmarshaller) unmarshaller).beanClass;
+    }
+
+    /**
+     * @return classes bound property by property (or through their constructor), including the ones only reachable
+     * from the global types
+     */
+    Set<Class<?>> getBoundClasses() {
+        Set<Class<?>> boundClasses = new HashSet<Class<?>>();
+        for (Entry<Class<?>, InitializableElementUnmarshaller> entry : type2Unmarshaller.entrySet()) {
+            if (entry.getValue() instanceof BeanUnmarshaller) {
+                boundClasses.add(entry.getKey());
+            }
+        }
+        return boundClasses;
+    }
+
+    /**
+     * Unmarshal into an existing instance, e.g. one unmarshalled from a previous message, instead of creating a new
+     * one. Beans & lists from the instance's current object graph are reused for the new graph wherever possible,
+     * with their bound properties reset first.
+     *
+     * <p>
+     * Finding the reusable beans & lists means walking the instance's object graph, so use
+     * {@link #newReusingUnmarshaller(java.lang.Object)} to unmarshal into the same instance repeatedly.
+     *
+     * @param target must be of the exact type bound to the element
+     * @return target
+     */
+    public <T> T unmarshalInto(Element element, T target) throws Exception {
+        return newReusingUnmarshaller(target).unmarshal(element);
+    }
+
+    /**
+     * @param target must be of the exact type bound to the elements that will be unmarshalled
+     * @see ReusingUnmarshaller
+     */
+    public <T> ReusingUnmarshaller<T> newReusingUnmarshaller(T target) {
+        return new ReusingUnmarshaller<T>(this, target, new ReusingBeanHandler(type2PropertyNames, target));
+    }
+
+    <T> T unmarshalInto(Element element, T target, ReusingBeanHandler beanHandler) throws Exception {
+        Unmarshaller<Element> unmarshaller = globalName2Unmarshaller.get(element.getLocalName());
+        if (!(unmarshaller instanceof BeanUnmarshaller) || ((BeanUnmarshaller) unmarshaller).beanClass != target.getClass()) {
+            throw new IllegalArgumentException(
+                    "Cannot unmarshal element '" + element.getLocalName() + "' into " + target.getClass().getName());
+        }
+        return (T) unmarshalWith(unmarshaller, element, beanHandler);
+    }
+
+    /**
+     * Only bind the given properties, skipping everything else. The pruned bindings are prepared once per set of
+     * property paths and reused afterwards, for as many sets as {@link Configuration#projectionCacheSize(int)}.
+     *
+     * @param propertyPaths dot-separated property names, e.g. {@code child.name}; a property without sub-path is
+     * bound entirely
+     */
+    public Object unmarshal(Element element, Set<String> propertyPaths) throws Exception {
+        return unmarshal(element, getObjectBeanHandler(), propertyPaths);
+    }
+
+    /**
+     * @see #unmarshal(org.w3c.dom.Element, java.util.Set)
+     */
+    public Object unmarshal(Element element, BeanHandler beanHandler, Set<String> propertyPaths) throws Exception {
+        return unmarshalUsing(getGlobalUnmarshallersProjectedTo(propertyPaths), element, beanHandler);
+    }
+
+    private Map<String, Unmarshaller<Element>> getGlobalUnmarshallersProjectedTo(Set<String> propertyPaths) throws Exception {
+        Map<String, Unmarshaller<Element>> projection;
+        synchronized (propertyPaths2GlobalUnmarshallers) {
+            projection = propertyPaths2GlobalUnmarshallers.get(propertyPaths);
+        }
+        if (projection != null) {
+            return projection;
+        }
+
+        Set<String> key = Collections.unmodifiableSet(new HashSet<String>(propertyPaths));
+        projection = new HashMap<String, Unmarshaller<Element>>();
+        for (Entry<String, Unmarshaller<Element>> entry : globalName2Unmarshaller.entrySet()) {
+            projection.put(entry.getKey(), BeanUnmarshaller.project(entry.getValue(), key));
+        }
+
+        synchronized (propertyPaths2GlobalUnmarshallers) {
+            propertyPaths2GlobalUnmarshallers.put(key, projection);
+        }
+        return projection;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the global element is unknown
+     */
+    Unmarshaller<Element> getGlobalUnmarshaller(String globalName) {
+        Unmarshaller<Element> unmarshaller = globalName2Unmarshaller.get(globalName);
+        if (unmarshaller == null) {
+            throw new IllegalArgumentException("Unknown global element: " + globalName);
+        }
+        return unmarshaller;
+    }
+
+    private Object unmarshalUsing(
+            Map<String, Unmarshaller<Element>> globalName2Unmarshaller,
+            Element element,
+            BeanHandler beanHandler) throws Exception {
         String globalName = element.getLocalName();
         Unmarshaller<Element> unmarshaller = globalName2Unmarshaller.get(globalName);
+        if (unmarshaller == null) {
+            throw new IllegalArgumentException("Unknown global element: " + globalName);
+        }
+
+        return unmarshalWith(unmarshaller, element, beanHandler);
+    }
 
+    Object unmarshalWith(Unmarshaller<Element> unmarshaller, Element element, BeanHandler beanHandler) throws Exception {
+        return unmarshalWith(configuration, unmarshaller, element, beanHandler);
+    }
+
+    static Object unmarshalWith(
+            Configuration configuration,
+            Unmarshaller<Element> unmarshaller,
+            Element element,
+            BeanHandler beanHandler) throws Exception {
+        if (configuration.isUnmarshalledIteratively()) {
+            return FrameEngine.unmarshal(unmarshaller, element, beanHandler);
+        }
         return unmarshaller.unmarshal(element, beanHandler);
     }
 
     public static JaxbeanUnmarshaller newInstance(Class<?>... types) throws Exception {
-        Builder builder = new Builder();
+        return newInstance(new Configuration(), types);
+    }
+
+    public static JaxbeanUnmarshaller newInstance(Configuration configuration, Class<?>... types) throws Exception {
+        return build(new Builder(configuration), types);
+    }
+
+    /**
+     * @see IncrementalUnmarshaller
+     */
+    public static IncrementalUnmarshaller newIncrementalInstance(Class<?>... types) throws Exception {
+        return newIncrementalInstance(new Configuration(), types);
+    }
+
+    /**
+     * @see IncrementalUnmarshaller
+     */
+    public static IncrementalUnmarshaller newIncrementalInstance(final Configuration configuration, Class<?>... types) throws Exception {
+        Builder builder = new Builder(configuration) {
+
+            @Override
+            protected InitializableElementUnmarshaller createBeanUnmarshaller(Class<?> type) throws Exception {
+                return new IncrementalBeanUnmarshaller(type, configuration);
+            }
+        };
+        return new IncrementalUnmarshaller(build(builder, types));
+    }
+
+    private static JaxbeanUnmarshaller build(Builder builder, Class<?>... types) throws Exception {
+        for (Class<?> type : types) {
+            builder.addGlobalType(type);
+        }
+        builder.init();
+
+        return new JaxbeanUnmarshaller(builder);
+    }
+
+    /**
+     * Create a new instance that also knows the given types. Only the types unknown to this instance are
+     * introspected: the bindings of the rest are copied (this instance is left unchanged), then extended with any
+     * new global elements they can {@link javax.xml.bind.annotation.XmlElementRef reference}.
+     */
+    public JaxbeanUnmarshaller withAdditionalTypes(Class<?>... types) throws Exception {
+        final Builder builder = new Builder(configuration);
+        Map<Unmarshaller<?>, Unmarshaller<?>> original2Copy = new IdentityHashMap<Unmarshaller<?>, Unmarshaller<?>>();
+        List<BeanUnmarshaller> copies = new ArrayList<BeanUnmarshaller>();
+        for (Entry<Class<?>, InitializableElementUnmarshaller> entry : type2Unmarshaller.entrySet()) {
+            InitializableElementUnmarshaller unmarshaller = entry.getValue();
+            if (unmarshaller instanceof BeanUnmarshaller) {
+                BeanUnmarshaller copy = ((BeanUnmarshaller) unmarshaller).copy();
+                original2Copy.put(unmarshaller, copy);
+                copies.add(copy);
+                unmarshaller = copy;
+            }
+            builder.type2InitializedUnmarshaller.put(entry.getKey(), unmarshaller);
+        }
+        for (BeanUnmarshaller copy : copies) {
+            copy.remapChildren(original2Copy);
+        }
+        for (Entry<String, Unmarshaller<Element>> entry : globalName2Unmarshaller.entrySet()) {
+            builder.globalName2Unmarshaller.put(entry.getKey(), BeanUnmarshaller.remap(entry.getValue(), original2Copy));
+        }
+        for (Entry<Class<?>, String> entry : globalType2Name.entrySet()) {
+            builder.putGlobalType(entry.getKey(), entry.getValue());
+        }
+
         for (Class<?> type : types) {
             builder.addGlobalType(type);
         }
         builder.init();
 
-        return new JaxbeanUnmarshaller(builder.globalName2Unmarshaller);
+        final Set<String> existingGlobalNames = globalName2Unmarshaller.keySet();
+        ElementUnmarshallerProvider newGlobalsProvider = new ElementUnmarshallerProvider() {
+
+            public Unmarshaller<Element> getUnmarshallerForType(Class<?> type) throws Exception {
+                return builder.getUnmarshallerForType(type);
+            }
+
+            public void forGlobalUnmarshallerCompatibleWith(Class<?> type, final Handler handler) {
+                builder.forGlobalUnmarshallerCompatibleWith(type, new Handler() {
+
+                    public void handle(String globalName, Unmarshaller<Element> unmarshaller) {
+                        if (!existingGlobalNames.contains(globalName)) {
+                            handler.handle(globalName, unmarshaller);
+                        }
+                    }
+                });
+            }
+        };
+        for (BeanUnmarshaller copy : copies) {
+            copy.addElementRefs(newGlobalsProvider);
+        }
+
+        return new JaxbeanUnmarshaller(builder);
     }
 
     private static class Builder implements ElementUnmarshallerProvider {
 
         private Map<String, Unmarshaller<Element>> globalName2Unmarshaller = new HashMap<String, Unmarshaller<Element>>();
         private Map<Class<?>, String> globalType2Name = new HashMap<Class<?>, String>();
+        private Map<Class<?>, Set<String>> superType2GlobalNames = new HashMap<Class<?>, Set<String>>();
         private Map<Class<?>, InitializableElementUnmarshaller> type2Unmarshaller
                 = new HashMap<Class<?>, InitializableElementUnmarshaller>();
         private Map<Class<?>, InitializableElementUnmarshaller> type2InitializedUnmarshaller
                 = new HashMap<Class<?>, InitializableElementUnmarshaller>();
+        private Configuration configuration;
+
+        public Builder(Configuration configuration) {
+            this.configuration = configuration;
+        }
 
         public void init() throws Exception {
             while (!type2Unmarshaller.isEmpty()) {
@@ -89,12 +358,51 @@ public class JaxbeanUnmarshaller {
             }
         }
 
+        public Map<Class<?>, Set<String>> getType2PropertyNames() {
+            Map<Class<?>, Set<String>> type2PropertyNames = new HashMap<Class<?>, Set<String>>();
+            for (Entry<Class<?>, InitializableElementUnmarshaller> entry : type2InitializedUnmarshaller.entrySet()) {
+                if (entry.getValue() instanceof BeanUnmarshaller) {
+                    BeanUnmarshaller unmarshaller = (BeanUnmarshaller) entry.getValue();
+                    type2PropertyNames.put(entry.getKey(), unmarshaller.getPropertyNames());
+                }
+            }
+            return type2PropertyNames;
+        }
+
         public void addGlobalType(Class<?> type) throws Exception {
             String elementName = resolveRootElementName(type);
             Unmarshaller<Element> unmarshaller = getUnmarshallerForType(type);
 
             globalName2Unmarshaller.put(elementName, unmarshaller);
-            globalType2Name.put(type, elementName);
+            putGlobalType(type, elementName);
+        }
+
+        public void putGlobalType(Class<?> type, String globalName) {
+            globalType2Name.put(type, globalName);
+            indexGlobalName(type, globalName);
+        }
+
+        /**
+         * Index the global name under the type and all its supertypes, so compatible global elements can be looked
+         * up directly instead of checking every global type.
+         */
+        private void indexGlobalName(Class<?> type, String globalName) {
+            if (type == null) {
+                return;
+            }
+            Set<String> globalNames = superType2GlobalNames.get(type);
+            if (globalNames == null) {
+                globalNames = new LinkedHashSet<String>();
+                superType2GlobalNames.put(type, globalNames);
+            }
+            if (!globalNames.add(globalName)) {
+                // Already indexed through another path, e.g. an interface inherited twice
+                return;
+            }
+            indexGlobalName(type.getSuperclass(), globalName);
+            for (Class<?> interfaceType : type.getInterfaces()) {
+                indexGlobalName(interfaceType, globalName);
+            }
         }
 
         @Override
@@ -116,18 +424,16 @@ public class JaxbeanUnmarshaller {
         }
 
         protected InitializableElementUnmarshaller createBeanUnmarshaller(Class<?> type) throws Exception {
-            return new BeanUnmarshaller(type);
+            return new BeanUnmarshaller(type, configuration);
         }
 
         @Override
         public void forGlobalUnmarshallerCompatibleWith(Class<?> type, Handler handler) {
-            for (Entry<Class<?>, String> entry : globalType2Name.entrySet()) {
-                Class<?> globalType = entry.getKey();
-                String globalName = entry.getValue();
-
-                if (!type.isAssignableFrom(globalType)) {
-                    continue;
-                }
+            Set<String> globalNames = superType2GlobalNames.get(type);
+            if (globalNames == null) {
+                return;
+            }
+            for (String globalName : globalNames) {
                 Unmarshaller<Element> unmarshaller = globalName2Unmarshaller.get(globalName);
                 handler.handle(globalName, unmarshaller);
             }
@@ -143,9 +449,47 @@ public class JaxbeanUnmarshaller {
         }
     }
 
-    private enum ObjectBeanHandler implements BeanHandler<BeanWrapper> {
+    /**
+     * @return bean handler used when none is given
+     */
+    BeanHandler getObjectBeanHandler() {
+        return getObjectBeanHandler(configuration);
+    }
 
-        INSTANCE;
+    static BeanHandler getObjectBeanHandler(Configuration configuration) {
+        return configuration.isListCompacted() ? ObjectBeanHandler.COMPACT : ObjectBeanHandler.INSTANCE;
+    }
+
+    enum ObjectBeanHandler
+            implements BeanHandler<BeanWrapper>, ListCreatingBeanHandler, ArrayBuildingBeanHandler, ConstructorBindingBeanHandler {
+
+        INSTANCE,
+        /**
+         * @see Configuration#compactLists()
+         */
+        COMPACT {
+
+            @Override
+            public List<Object> createList(int expectedSize) {
+                return new CompactList(expectedSize);
+            }
+
+            @Override
+            public Object postProcessList(List<Object> unprocessedList) {
+                if (!(unprocessedList instanceof CompactList)) {
+                    return super.postProcessList(unprocessedList);
+                }
+
+                switch (unprocessedList.size()) {
+                    case 0:
+                        return Collections.emptyList();
+                    case 1:
+                        return Collections.singletonList(unprocessedList.get(0));
+                    default:
+                        return ((CompactList) unprocessedList).seal();
+                }
+            }
+        };
 
         @Override
         public BeanWrapper createBean(Class<?> beanClass) throws Exception {
@@ -154,6 +498,11 @@ public class JaxbeanUnmarshaller {
             return PropertyAccessorFactory.forBeanPropertyAccess(instance);
         }
 
+        @Override
+        public BeanWrapper createBean(Constructor<?> constructor, Object[] arguments) throws Exception {
+            return PropertyAccessorFactory.forBeanPropertyAccess(constructor.newInstance(arguments));
+        }
+
         @Override
         public void setBeanProperty(BeanWrapper bean, String propertyName, Object propertyValue) {
             bean.setPropertyValue(propertyName, propertyValue);
@@ -164,9 +513,14 @@ public class JaxbeanUnmarshaller {
             return xmlAdapter.unmarshal(from);
         }
 
+        @Override
+        public List<Object> createList(int expectedSize) {
+            return new ArrayList<Object>(expectedSize);
+        }
+
         @Override
         public Object postProcessList(List<Object> unprocessedList) {
-            return unprocessedList;
+            return ArrayBuilder.toValue(unprocessedList);
         }
 
         @Override
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.Frame;
+import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.FrameUnmarshaller;
+import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import javax.xml.XMLConstants;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.Text;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Unmarshaller for single huge documents, which parses on another thread while binding on the calling thread: each
+ * child of the root element is handed over as soon as it has been parsed (as its own DOM subtree, through a bounded
+ * {@link RingBuffer}), and bound while the parser moves on to the next one.
+ * <p>
+ * Only the root element's children are bound as they arrive; each of them is bound once it has been parsed entirely.
+ * Results are the same as {@link JaxbeanUnmarshaller#unmarshal(java.io.InputStream)}: the result is only returned once
+ * the whole document has been parsed, and the parser has always stopped reading the stream by the time
+ * {@link #unmarshal(InputStream)} returns or throws.
+ *
+ * @author yihtserns
+ */
+public final class PipelinedUnmarshaller {
+
+    private static final int BUFFER_SIZE = 1024;
+    private static final Object END = new Object();
+    private JaxbeanUnmarshaller unmarshaller;
+    private Executor parserExecutor;
+
+    /**
+     * @param parserExecutor runs the parsing of each document, so should have a thread available for every concurrent
+     * call
+     */
+    public PipelinedUnmarshaller(JaxbeanUnmarshaller unmarshaller, Executor parserExecutor) {
+        this.unmarshaller = unmarshaller;
+        this.parserExecutor = parserExecutor;
+    }
+
+    public Object unmarshal(InputStream inputStream) throws Exception {
+        return unmarshal(inputStream, unmarshaller.getObjectBeanHandler());
+    }
+
+    public Object unmarshal(final InputStream inputStream, BeanHandler beanHandler) throws Exception {
+        final RingBuffer<Object> buffer = new RingBuffer<Object>(BUFFER_SIZE);
+        final CountDownLatch parserStopped = new CountDownLatch(1);
+        parserExecutor.execute(new Runnable() {
+
+            public void run() {
+                try {
+                    Documents.parse(inputStream, new SubtreeProducer(buffer));
+                } catch (AbandonedException ex) {
+                    // Binding has failed, nobody is waiting for anything else
+                } catch (Throwable ex) {
+                    buffer.put(ex);
+                } finally {
+                    parserStopped.countDown();
+                }
+            }
+        });
+
+        try {
+            return bind(buffer, beanHandler);
+        } finally {
+            buffer.abandon();
+            // The stream belongs to the caller again once this returns
+            awaitUninterruptibly(parserStopped);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Object bind(RingBuffer<Object> buffer, BeanHandler beanHandler) throws Exception {
+        Element root = (Element) take(buffer);
+        Unmarshaller<Element> rootUnmarshaller = unmarshaller.getGlobalUnmarshaller(root.getLocalName());
+        if (!(rootUnmarshaller instanceof FrameUnmarshaller)) {
+            for (Object event = take(buffer); event != END; event = take(buffer)) {
+                append(root, event);
+            }
+            return unmarshaller.unmarshalWith(rootUnmarshaller, root, beanHandler);
+        }
+
+        // Siblings of each child are still to come, so cannot be counted for presizing lists
+        Frame frame = rootUnmarshaller instanceof BeanUnmarshaller
+                ? ((BeanUnmarshaller) rootUnmarshaller).newFrame(root, beanHandler, false)
+                : ((FrameUnmarshaller) rootUnmarshaller).newFrame(root, beanHandler);
+        for (Object event = take(buffer); event != END; event = take(buffer)) {
+            append(root, event);
+            for (Element childElement = frame.nextChild(); childElement != null; childElement = frame.nextChild()) {
+                frame.accept(unmarshaller.unmarshalWith(frame.getChildUnmarshaller(), childElement, beanHandler));
+            }
+        }
+        return frame.complete();
+    }
+
+    private static Object take(RingBuffer<Object> buffer) throws Exception {
+        Object event = buffer.take();
+        if (event instanceof Exception) {
+            throw (Exception) event;
+        }
+        if (event instanceof Error) {
+            throw (Error) event;
+        }
+        return event;
+    }
+
+    private static void append(Element root, Object event) {
+        Document document = root.getOwnerDocument();
+        Node child = event instanceof String
+                ? document.createTextNode((String) event)
+                : document.adoptNode((Element) event);
+        root.appendChild(child);
+    }
+
+    /**
+     * Builds the root element (without children) and each of its children in a document of their own, so the binding
+     * thread never sees a document the parsing thread is still changing. Text directly under the root element is
+     * handed over as strings.
+     */
+    private static final class SubtreeProducer extends DefaultHandler {
+
+        private RingBuffer<Object> buffer;
+        private List<String> pendingPrefixMappings = new ArrayList<String>();
+        private StringBuilder rootText = new StringBuilder();
+        private int depth = 0;
+        private Document document;
+        private Element current;
+
+        public SubtreeProducer(RingBuffer<Object> buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void startPrefixMapping(String prefix, String uri) {
+            pendingPrefixMappings.add(prefix);
+            pendingPrefixMappings.add(uri);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            try {
+                if (depth == 0) {
+                    Document rootDocument = Documents.newDocument();
+                    rootDocument.appendChild(createElement(rootDocument, uri, qName, attributes));
+                    put(rootDocument.getDocumentElement());
+                } else if (depth == 1) {
+                    putRootText();
+                    document = Documents.newDocument();
+                    current = createElement(document, uri, qName, attributes);
+                } else {
+                    current = (Element) current.appendChild(createElement(document, uri, qName, attributes));
+                }
+            } catch (SAXException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new SAXException(ex);
+            }
+            depth++;
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            depth--;
+            if (depth == 0) {
+                putRootText();
+            } else if (depth == 1) {
+                put(current);
+                document = null;
+                current = null;
+            } else {
+                current = (Element) current.getParentNode();
+            }
+        }
+
+        /**
+         * Only now, since the parser can still reject what comes after the root element.
+         */
+        @Override
+        public void endDocument() throws SAXException {
+            put(END);
+        }
+
+        @Override
+        public void characters(char[] chars, int start, int length) {
+            if (depth == 1) {
+                rootText.append(chars, start, length);
+            } else if (depth > 1) {
+                Node lastChild = current.getLastChild();
+                if (lastChild instanceof Text) {
+                    ((Text) lastChild).appendData(new String(chars, start, length));
+                } else {
+                    current.appendChild(document.createTextNode(new String(chars, start, length)));
+                }
+            }
+        }
+
+        private Element createElement(Document document, String uri, String qName, Attributes attributes) {
+            Element element = document.createElementNS(uri.length() > 0 ? uri : null, qName);
+            for (int i = 0; i < pendingPrefixMappings.size(); i += 2) {
+                String prefix = pendingPrefixMappings.get(i);
+                element.setAttributeNS(
+                        XMLConstants.XMLNS_ATTRIBUTE_NS_URI,
+                        prefix.length() > 0 ? XMLConstants.XMLNS_ATTRIBUTE + ":" + prefix : XMLConstants.XMLNS_ATTRIBUTE,
+                        pendingPrefixMappings.get(i + 1));
+            }
+            pendingPrefixMappings.clear();
+
+            for (int i = 0; i < attributes.getLength(); i++) {
+                String attributeUri = attributes.getURI(i);
+                element.setAttributeNS(
+                        attributeUri.length() > 0 ? attributeUri : null,
+                        attributes.getQName(i),
+                        attributes.getValue(i));
+            }
+            return element;
+        }
+
+        private void putRootText() throws AbandonedException {
+            if (rootText.length() > 0) {
+                put(rootText.toString());
+                rootText.setLength(0);
+            }
+        }
+
+        private void put(Object event) throws AbandonedException {
+            if (!buffer.put(event)) {
+                throw new AbandonedException();
+            }
+        }
+    }
+
+    /**
+     * Stops the parsing once the binding has failed.
+     */
+    private static final class AbandonedException extends SAXException {
+
+        private static final long serialVersionUID = 1L;
+    }
+}
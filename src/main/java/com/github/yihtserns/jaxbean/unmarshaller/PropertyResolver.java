@@ -93,6 +93,22 @@ abstract class PropertyResolver<T extends AccessibleObject> {
         return type == List.class || type.isArray();
     }
 
+    public boolean isArrayType(T accObj) {
+        return getPropertyType(accObj).isArray();
+    }
+
+    /**
+     * @return {@code true} if property is {@link Deferred} or list of {@link Deferred}
+     */
+    public boolean isDeferredType(T accObj) {
+        Class<?> type = getPropertyType(accObj);
+
+        if (type == List.class) {
+            return toRawType(getTypeArgument(getGenericType(accObj))) == Deferred.class;
+        }
+        return type == Deferred.class;
+    }
+
     public Class<?> getComponentType(T accObj) {
         Class<?> type = getPropertyType(accObj);
 
@@ -102,13 +118,27 @@ abstract class PropertyResolver<T extends AccessibleObject> {
         if (type.isArray()) {
             return type.getComponentType();
         }
+        if (type == Deferred.class) {
+            return toRawType(getTypeArgument(getGenericType(accObj)));
+        }
         return type;
     }
 
     private Class<?> getListComponentType(T t) {
-        Type type = getGenericType(t);
-        type = ((ParameterizedType) type).getActualTypeArguments()[0];
+        Type type = getTypeArgument(getGenericType(t));
+
+        if (toRawType(type) == Deferred.class) {
+            type = getTypeArgument(type);
+        }
+
+        return toRawType(type);
+    }
+
+    private static Type getTypeArgument(Type type) {
+        return ((ParameterizedType) type).getActualTypeArguments()[0];
+    }
 
+    private static Class<?> toRawType(Type type) {
         if (type instanceof ParameterizedType) {
             type = ((ParameterizedType) type).getRawType();
         }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.BindingMetadata.Binding;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Comparator;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+
+/**
+ * Generates the {@code reflect-config.json} needed to use {@link JaxbeanUnmarshaller} in a GraalVM native image, by
+ * registering every class the unmarshaller would introspect or instantiate for the given types: bound classes, the
+ * value types of their properties, {@link XmlAdapter}s & the types they adapt between, all with their superclasses.
+ * Meant to be run at build time, e.g. with
+ * {@code exec-maven-plugin}:
+ * <pre>
+ * java com.github.yihtserns.jaxbean.unmarshaller.ReflectionConfigGenerator \
+ *     target/classes/META-INF/native-image/reflect-config.json com.example.Root com.example.OtherRoot
+ * </pre>
+ *
+ * @author yihtserns
+ */
+public final class ReflectionConfigGenerator {
+
+    private static final Comparator<Class<?>> BY_NAME = new Comparator<Class<?>>() {
+
+        public int compare(Class<?> class1, Class<?> class2) {
+            return class1.getName().compareTo(class2.getName());
+        }
+    };
+
+    private ReflectionConfigGenerator() {
+    }
+
+    /**
+     * @param args output file, followed by the names of the types that would be given to
+     * {@link JaxbeanUnmarshaller#newInstance(java.lang.Class...)}
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: ReflectionConfigGenerator <output file> <class name>...");
+            System.exit(1);
+        }
+        Class<?>[] types = new Class<?>[args.length - 1];
+        for (int i = 0; i < types.length; i++) {
+            types[i] = Class.forName(args[i + 1]);
+        }
+
+        File file = new File(args[0]);
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Cannot create directory: " + directory);
+        }
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            write(writer, types);
+        } finally {
+            writer.close();
+        }
+    }
+
+    public static void write(Writer writer, Class<?>... types) throws Exception {
+        writer.write("[");
+        String separator = "\n";
+        for (Class<?> reflectedClass : getReflectedClasses(types)) {
+            writer.write(separator);
+            writer.write("  {\n");
+            writer.write("    \"name\": \"" + reflectedClass.getName() + "\",\n");
+            writer.write("    \"allDeclaredConstructors\": true,\n");
+            writer.write("    \"allDeclaredFields\": true,\n");
+            writer.write("    \"allDeclaredMethods\": true,\n");
+            writer.write("    \"allPublicMethods\": true\n");
+            writer.write("  }");
+            separator = ",\n";
+        }
+        writer.write("\n]\n");
+    }
+
+    private static Set<Class<?>> getReflectedClasses(Class<?>... types) throws Exception {
+        Set<Class<?>> reflectedClasses = new TreeSet<Class<?>>(BY_NAME);
+        for (Class<?> boundClass : JaxbeanUnmarshaller.newInstance(types).getBoundClasses()) {
+            addWithSuperclasses(boundClass, Object.class, reflectedClasses);
+            for (Binding binding : BindingMetadata.of(boundClass).getBindings()) {
+                addWithSuperclasses(binding.componentType, Object.class, reflectedClasses);
+                if (binding.adapterClass != null) {
+                    addWithSuperclasses(binding.adapterClass, XmlAdapter.class, reflectedClasses);
+                    Type adapterType = binding.adapterClass.getGenericSuperclass();
+                    if (adapterType instanceof ParameterizedType) {
+                        for (Type typeArgument : ((ParameterizedType) adapterType).getActualTypeArguments()) {
+                            if (typeArgument instanceof Class) {
+                                addWithSuperclasses((Class<?>) typeArgument, Object.class, reflectedClasses);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return reflectedClasses;
+    }
+
+    /**
+     * Interfaces have no superclass, while primitives & arrays need no registration.
+     */
+    private static void addWithSuperclasses(Class<?> type, Class<?> stopClass, Set<Class<?>> reflectedClasses) {
+        if (type == null || type.isPrimitive() || type.isArray()) {
+            return;
+        }
+        for (; type != null && type != stopClass && type != Object.class; type = type.getSuperclass()) {
+            reflectedClasses.add(type);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Object graph unmarshalled from a file, which is unmarshalled again on a background thread whenever the file
+ * changes, e.g.
+ * <pre>
+ * ReloadingFile&lt;Config&gt; config = new ReloadingFile&lt;Config&gt;(file, unmarshaller, Config.class, 1, 2, TimeUnit.SECONDS);
+ * ...
+ * Config current = config.get();
+ * </pre>
+ * A change is detected by polling the file's last-modified time & length (so a same-length rewrite within the
+ * file system's timestamp resolution can be missed), and is only acted upon once the file has stopped changing for
+ * the quiet period, so a burst of writes results in one reload.
+ * <p>
+ * The new object graph is fully unmarshalled before being published, so {@link #get()} never blocks nor returns a
+ * half-built graph. If the changed file cannot be unmarshalled (including when that throws an {@link Error}), the
+ * previous graph is kept and polling carries on.
+ *
+ * @author yihtserns
+ */
+public final class ReloadingFile<T> implements Closeable {
+
+    private File file;
+    private JaxbeanUnmarshaller unmarshaller;
+    private Class<T> type;
+    private long quietPeriodMillis;
+    private ScheduledExecutorService executor;
+    private volatile T current;
+    private volatile Throwable lastReloadFailure = null;
+    // Only accessed by the polling thread after construction
+    private Stamp loadedStamp;
+    private Stamp pendingStamp = null;
+    private long pendingSince;
+
+    /**
+     * Unmarshals the file once before returning.
+     *
+     * @param type of the file's root element
+     * @param pollInterval how often the file is checked for change
+     * @param quietPeriod how long a changed file must stay unchanged before being reloaded
+     */
+    public ReloadingFile(
+            File file,
+            JaxbeanUnmarshaller unmarshaller,
+            Class<T> type,
+            long pollInterval,
+            long quietPeriod,
+            TimeUnit unit) throws Exception {
+        this.file = file;
+        this.unmarshaller = unmarshaller;
+        this.type = type;
+        this.quietPeriodMillis = unit.toMillis(quietPeriod);
+
+        this.loadedStamp = Stamp.of(file);
+        this.current = load();
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ReloadingFile[" + ReloadingFile.this.file.getName() + "]");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.scheduleWithFixedDelay(new Runnable() {
+
+            public void run() {
+                poll();
+            }
+        }, pollInterval, pollInterval, unit);
+    }
+
+    /**
+     * @return latest object graph successfully unmarshalled
+     */
+    public T get() {
+        return current;
+    }
+
+    /**
+     * @return why the latest reload failed, or {@code null} if it succeeded
+     */
+    public Throwable getLastReloadFailure() {
+        return lastReloadFailure;
+    }
+
+    /**
+     * Stop watching the file. {@link #get()} keeps returning the latest object graph.
+     */
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private T load() throws Exception {
+        return type.cast(unmarshaller.unmarshal(Documents.parse(file)));
+    }
+
+    /**
+     * Reload the file if it has changed (and stayed unchanged for the quiet period). Must only be called by one thread
+     * at a time.
+     */
+    void poll() {
+        Stamp stamp = Stamp.of(file);
+        if (stamp.equals(loadedStamp)) {
+            pendingStamp = null;
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (!stamp.equals(pendingStamp)) {
+            pendingStamp = stamp;
+            pendingSince = now;
+        }
+        if (TimeUnit.NANOSECONDS.toMillis(now - pendingSince) < quietPeriodMillis) {
+            return;
+        }
+
+        // Not retried until the file changes again, whether this succeeds or not
+        loadedStamp = stamp;
+        pendingStamp = null;
+        try {
+            current = load();
+            lastReloadFailure = null;
+        } catch (Throwable ex) {
+            // Not rethrown: that would cancel the polling for good
+            lastReloadFailure = ex;
+        }
+    }
+
+    private static final class Stamp {
+
+        private long lastModified;
+        private long length;
+
+        private Stamp(long lastModified, long length) {
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        public static Stamp of(File file) {
+            return new Stamp(file.lastModified(), file.length());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Stamp)) {
+                return false;
+            }
+            Stamp other = (Stamp) obj;
+            return lastModified == other.lastModified && length == other.length;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (lastModified ^ length);
+        }
+    }
+}
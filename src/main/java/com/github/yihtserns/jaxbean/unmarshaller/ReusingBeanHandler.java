@@ -0,0 +1,303 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import com.github.yihtserns.jaxbean.unmarshaller.api.ListCreatingBeanHandler;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Object bean handler that pools the beans & lists of a previously unmarshalled object graph, and hands them out
+ * again instead of creating new ones. Kept by {@link ReusingUnmarshaller} from one call to the next, so only the first
+ * call needs to walk the previous graph: later calls reuse whatever the call before them produced.
+ * <p>
+ * A reused bean gets all its bound properties reset to {@code null} (primitives to {@code 0}/{@code false}), so it
+ * ends up with the same values as a new bean for everything the XML specifies. Each reused bean keeps its
+ * {@link BeanWrapper}, and a reused list only goes back to the property of the same class it was taken from.
+ *
+ * @author yihtserns
+ */
+class ReusingBeanHandler
+        implements BeanHandler<BeanWrapper>, ListCreatingBeanHandler, ArrayBuildingBeanHandler, RunScopedBeanHandler {
+
+    private static final Reset[] NO_RESETS = new Reset[0];
+    private Map<Class<?>, Set<String>> type2PropertyNames;
+    private Map<Class<?>, Reset[]> type2Resets = new HashMap<Class<?>, Reset[]>();
+    private Pool<Class<?>, BeanWrapper> beans = new Pool<Class<?>, BeanWrapper>();
+    private Map<Class<?>, Pool<String, List<Object>>> type2Lists = new HashMap<Class<?>, Pool<String, List<Object>>>();
+    /**
+     * Lists handed out to collect the items of a property, which are free again once their items have been copied
+     * into that property's reused list.
+     */
+    private Queue<ScratchList> scratchLists = new ArrayDeque<ScratchList>();
+
+    /**
+     * @param type2PropertyNames bean classes known to the unmarshaller, and their bound properties
+     * @param root previously unmarshalled object graph, which will be the first bean of its class handed out
+     */
+    public ReusingBeanHandler(Map<Class<?>, Set<String>> type2PropertyNames, Object root) {
+        this.type2PropertyNames = type2PropertyNames;
+        collect(root, Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+    }
+
+    private void collect(Object value, Set<Object> collected) {
+        if (value == null || !collected.add(value)) {
+            return;
+        }
+        if (value instanceof List) {
+            for (Object item : (List<?>) value) {
+                collect(item, collected);
+            }
+            return;
+        }
+        if (value instanceof Object[]) {
+            for (Object item : (Object[]) value) {
+                collect(item, collected);
+            }
+            return;
+        }
+
+        Set<String> propertyNames = type2PropertyNames.get(value.getClass());
+        if (propertyNames == null) {
+            return;
+        }
+        BeanWrapper bean = PropertyAccessorFactory.forBeanPropertyAccess(value);
+        beans.addReusable(value.getClass(), bean);
+
+        for (String propertyName : propertyNames) {
+            if (!bean.isReadableProperty(propertyName)) {
+                continue;
+            }
+            Object propertyValue = bean.getPropertyValue(propertyName);
+            if (propertyValue instanceof ArrayList && !collected.contains(propertyValue)) {
+                listsOf(value.getClass()).addReusable(propertyName, (List<Object>) propertyValue);
+            }
+            collect(propertyValue, collected);
+        }
+    }
+
+    /**
+     * Make everything handed out since the previous call (followed by whatever was not needed) reusable by the next
+     * call.
+     */
+    public void recycle() {
+        beans.recycle();
+        for (Pool<String, List<Object>> lists : type2Lists.values()) {
+            lists.recycle();
+        }
+    }
+
+    @Override
+    public BeanWrapper createBean(Class<?> beanClass) throws Exception {
+        BeanWrapper bean = beans.poll(beanClass);
+        if (bean == null) {
+            bean = PropertyAccessorFactory.forBeanPropertyAccess(beanClass.newInstance());
+        } else {
+            Object instance = bean.getWrappedInstance();
+            for (Reset reset : resetsOf(bean)) {
+                reset.writeMethod.invoke(instance, reset.args);
+            }
+        }
+        beans.produced(beanClass, bean);
+
+        return bean;
+    }
+
+    private Reset[] resetsOf(BeanWrapper bean) {
+        Class<?> beanClass = bean.getWrappedClass();
+        Reset[] resets = type2Resets.get(beanClass);
+        if (resets != null) {
+            return resets;
+        }
+        Set<String> propertyNames = type2PropertyNames.get(beanClass);
+        if (propertyNames == null) {
+            resets = NO_RESETS;
+        } else {
+            List<Reset> resetList = new ArrayList<Reset>();
+            for (String propertyName : propertyNames) {
+                if (bean.isWritableProperty(propertyName)) {
+                    resetList.add(new Reset(bean.getPropertyDescriptor(propertyName)));
+                }
+            }
+            resets = resetList.toArray(new Reset[resetList.size()]);
+        }
+        type2Resets.put(beanClass, resets);
+
+        return resets;
+    }
+
+    @Override
+    public void setBeanProperty(BeanWrapper bean, String propertyName, Object propertyValue) {
+        if (propertyValue instanceof ScratchList) {
+            propertyValue = takeOver((ScratchList) propertyValue, listsOf(bean.getWrappedClass()), propertyName);
+        }
+        bean.setPropertyValue(propertyName, propertyValue);
+    }
+
+    /**
+     * @return the property's reused list, now with the scratch list's items, or the scratch list itself if the
+     * property has no list to reuse
+     */
+    private List<Object> takeOver(ScratchList scratchList, Pool<String, List<Object>> lists, String propertyName) {
+        List<Object> list = lists.poll(propertyName);
+        if (list == null) {
+            list = scratchList;
+        } else {
+            list.clear();
+            // Not addAll, which would copy the items into a new array first
+            for (int i = 0; i < scratchList.size(); i++) {
+                list.add(scratchList.get(i));
+            }
+            scratchList.clear();
+            scratchLists.add(scratchList);
+        }
+        lists.produced(propertyName, list);
+
+        return list;
+    }
+
+    private Pool<String, List<Object>> listsOf(Class<?> beanClass) {
+        Pool<String, List<Object>> lists = type2Lists.get(beanClass);
+        if (lists == null) {
+            lists = new Pool<String, List<Object>>();
+            type2Lists.put(beanClass, lists);
+        }
+        return lists;
+    }
+
+    @Override
+    public Object unmarshalWith(XmlAdapter xmlAdapter, Object from) throws Exception {
+        return xmlAdapter.unmarshal(from);
+    }
+
+    @Override
+    public List<Object> createList(int expectedSize) {
+        ScratchList list = scratchLists.poll();
+        if (list == null) {
+            return new ScratchList(expectedSize);
+        }
+        list.ensureCapacity(expectedSize);
+
+        return list;
+    }
+
+    @Override
+    public Object postProcessList(List<Object> unprocessedList) {
+        return ArrayBuilder.toValue(unprocessedList);
+    }
+
+    @Override
+    public Object postProcess(BeanWrapper bean) {
+        return bean.getWrappedInstance();
+    }
+
+    /**
+     * @return {@code 0}/{@code false} for primitives, {@code null} for everything else
+     */
+    private static Object defaultValueOf(Class<?> type) {
+        return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+
+    /**
+     * Resets a property without going through the bean wrapper, which allocates on every access.
+     */
+    private static final class Reset {
+
+        private Method writeMethod;
+        private Object[] args;
+
+        public Reset(PropertyDescriptor propertyDescriptor) {
+            this.writeMethod = propertyDescriptor.getWriteMethod();
+            this.args = new Object[]{defaultValueOf(propertyDescriptor.getPropertyType())};
+            ReflectionUtils.makeAccessible(writeMethod);
+        }
+    }
+
+    /**
+     * Marks the lists this handler hands out, to tell them apart from lists an adapter might produce.
+     */
+    private static final class ScratchList extends ArrayList<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        public ScratchList(int initialCapacity) {
+            super(initialCapacity);
+        }
+    }
+
+    /**
+     * Values by key, reusable in the order they were handed out by the previous call.
+     */
+    private static final class Pool<K, V> {
+
+        private Map<K, ArrayDeque<V>> reusable = new HashMap<K, ArrayDeque<V>>();
+        private Map<K, ArrayDeque<V>> produced = new HashMap<K, ArrayDeque<V>>();
+
+        public V poll(K key) {
+            ArrayDeque<V> values = reusable.get(key);
+            return values != null ? values.poll() : null;
+        }
+
+        public void addReusable(K key, V value) {
+            queueOf(reusable, key).add(value);
+        }
+
+        public void produced(K key, V value) {
+            queueOf(produced, key).add(value);
+        }
+
+        public void recycle() {
+            for (Entry<K, ArrayDeque<V>> entry : reusable.entrySet()) {
+                ArrayDeque<V> leftovers = entry.getValue();
+                if (!leftovers.isEmpty()) {
+                    ArrayDeque<V> values = queueOf(produced, entry.getKey());
+                    for (V leftover = leftovers.poll(); leftover != null; leftover = leftovers.poll()) {
+                        values.add(leftover);
+                    }
+                }
+            }
+            // Swapped so the queues themselves are reused too
+            Map<K, ArrayDeque<V>> emptied = reusable;
+            reusable = produced;
+            produced = emptied;
+        }
+
+        private static <K, V> ArrayDeque<V> queueOf(Map<K, ArrayDeque<V>> key2Values, K key) {
+            ArrayDeque<V> values = key2Values.get(key);
+            if (values == null) {
+                values = new ArrayDeque<V>();
+                key2Values.put(key, values);
+            }
+            return values;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import org.w3c.dom.Element;
+
+/**
+ * Unmarshaller for a stream of similar messages, e.g. from a message queue, which unmarshals every message into the
+ * same target: beans & lists of the previous result are reset and reused for the next one wherever possible, so
+ * repeated calls allocate hardly any new beans or lists once the pool has warmed up.
+ * <p>
+ * Every call therefore overwrites the previous result, which must no longer be used elsewhere.
+ *
+ * @see JaxbeanUnmarshaller#newReusingUnmarshaller(java.lang.Object)
+ * @author yihtserns
+ */
+public final class ReusingUnmarshaller<T> {
+
+    private JaxbeanUnmarshaller unmarshaller;
+    private T target;
+    private ReusingBeanHandler beanHandler;
+
+    ReusingUnmarshaller(JaxbeanUnmarshaller unmarshaller, T target, ReusingBeanHandler beanHandler) {
+        this.unmarshaller = unmarshaller;
+        this.target = target;
+        this.beanHandler = beanHandler;
+    }
+
+    /**
+     * @return the target
+     */
+    public synchronized T unmarshal(Element element) throws Exception {
+        try {
+            return unmarshaller.unmarshalInto(element, target, beanHandler);
+        } finally {
+            beanHandler.recycle();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded queue for exactly one producer thread and one consumer thread, which only coordinate through the two
+ * positions instead of locks. A side waiting for the other spins briefly, then parks until the other side wakes it up.
+ *
+ * @author yihtserns
+ */
+final class RingBuffer<T> {
+
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private final Object[] slots;
+    private final int mask;
+    /**
+     * Position of the next item to take.
+     */
+    private final AtomicLong head = new AtomicLong();
+    /**
+     * Position of the next item to put.
+     */
+    private final AtomicLong tail = new AtomicLong();
+    private volatile boolean abandoned = false;
+    private volatile Thread parkedProducer;
+    private volatile Thread parkedConsumer;
+
+    public RingBuffer(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+
+        this.slots = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return {@code false} if the consumer has {@link #abandon() abandoned} this buffer, so nothing more should be put
+     */
+    public boolean put(T item) {
+        long position = tail.get();
+        for (int attempt = 0; isFull(position); attempt++) {
+            if (abandoned) {
+                return false;
+            }
+            if (attempt < SPINS_BEFORE_PARKING) {
+                Thread.yield();
+                continue;
+            }
+            parkedProducer = Thread.currentThread();
+            // Checked again after announcing itself, so space freed in the meantime is not slept through
+            if (isFull(position) && !abandoned) {
+                LockSupport.park(this);
+            }
+            parkedProducer = null;
+        }
+        slots[(int) position & mask] = item;
+        tail.set(position + 1);
+        LockSupport.unpark(parkedConsumer);
+
+        return !abandoned;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T take() {
+        long position = head.get();
+        for (int attempt = 0; isEmpty(position); attempt++) {
+            if (attempt < SPINS_BEFORE_PARKING) {
+                Thread.yield();
+                continue;
+            }
+            parkedConsumer = Thread.currentThread();
+            // Checked again after announcing itself, so an item put in the meantime is not slept through
+            if (isEmpty(position)) {
+                LockSupport.park(this);
+            }
+            parkedConsumer = null;
+        }
+        int index = (int) position & mask;
+        T item = (T) slots[index];
+        slots[index] = null;
+        head.set(position + 1);
+        LockSupport.unpark(parkedProducer);
+
+        return item;
+    }
+
+    /**
+     * Called by the consumer when it stops taking items, so the producer does not wait for space forever.
+     */
+    public void abandon() {
+        abandoned = true;
+        LockSupport.unpark(parkedProducer);
+    }
+
+    private boolean isFull(long tailPosition) {
+        return tailPosition - head.get() == slots.length;
+    }
+
+    private boolean isEmpty(long headPosition) {
+        return headPosition == tail.get();
+    }
+}
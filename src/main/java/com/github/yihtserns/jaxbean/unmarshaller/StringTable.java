@@ -0,0 +1,51 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+/**
+ * Bounded, lossy table used to make equal strings share one instance.
+ * <p>
+ * Each string can only live in the slot its hash points to, so a colliding string simply replaces the previous
+ * one instead of growing the table. Slots are read and written without locking: strings are immutable, so the
+ * worst a race can do is miss a chance to deduplicate.
+ *
+ * @author yihtserns
+ */
+final class StringTable {
+
+    private final String[] slots;
+    private final int mask;
+
+    public StringTable(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+
+        this.slots = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public String intern(String value) {
+        int hash = value.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+
+        String cached = slots[index];
+        if (value.equals(cached)) {
+            return cached;
+        }
+        slots[index] = value;
+
+        return value;
+    }
+}
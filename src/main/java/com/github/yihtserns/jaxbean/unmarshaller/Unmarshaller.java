@@ -32,6 +32,39 @@ interface Unmarshaller<N extends Node> {
         public void init(ElementUnmarshallerProvider unmarshallerFactory) throws Exception;
     }
 
+    /**
+     * Element unmarshaller that can be driven by {@link FrameEngine} one child at a time, instead of recursing into
+     * its children itself.
+     */
+    interface FrameUnmarshaller {
+
+        Frame newFrame(Element element, BeanHandler beanHandler) throws Exception;
+    }
+
+    /**
+     * State of one element being unmarshalled.
+     */
+    interface Frame {
+
+        /**
+         * @return next child element to unmarshal (using {@link #getChildUnmarshaller()}), or {@code null} if there
+         * is none left
+         */
+        Element nextChild() throws Exception;
+
+        Unmarshaller<Element> getChildUnmarshaller();
+
+        /**
+         * @param value unmarshalled from the element last returned by {@link #nextChild()}
+         */
+        void accept(Object value) throws Exception;
+
+        /**
+         * @return unmarshalled value of the whole element
+         */
+        Object complete() throws Exception;
+    }
+
     interface ElementUnmarshallerProvider {
 
         Unmarshaller<Element> getUnmarshallerForType(Class<?> type) throws Exception;
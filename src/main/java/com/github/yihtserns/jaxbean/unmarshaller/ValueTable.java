@@ -0,0 +1,70 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded, lossy table used to make value beans with equal bound values share one instance.
+ * <p>
+ * Works like {@link StringTable}, except that slots are published through an {@link AtomicReferenceArray} since,
+ * unlike strings, beans are not safe to hand over to other threads through a race.
+ *
+ * @author yihtserns
+ */
+final class ValueTable {
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+
+    public ValueTable(int size) {
+        int capacity = Integer.highestOneBit(Math.max(size, 2) - 1) << 1;
+
+        this.slots = new AtomicReferenceArray<Entry>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @param boundValues property values the bean was bound with, by property name
+     * @return bean previously interned for the same class & bound values, otherwise the given bean
+     */
+    public Object intern(Class<?> beanClass, Map<String, Object> boundValues, Object bean) {
+        int hash = 31 * beanClass.hashCode() + boundValues.hashCode();
+        int index = (hash ^ (hash >>> 16)) & mask;
+
+        Entry cached = slots.get(index);
+        if (cached != null && cached.beanClass == beanClass && cached.boundValues.equals(boundValues)) {
+            return cached.bean;
+        }
+        slots.set(index, new Entry(beanClass, boundValues, bean));
+
+        return bean;
+    }
+
+    private static final class Entry {
+
+        private final Class<?> beanClass;
+        private final Map<String, Object> boundValues;
+        private final Object bean;
+
+        public Entry(Class<?> beanClass, Map<String, Object> boundValues, Object bean) {
+            this.beanClass = beanClass;
+            this.boundValues = boundValues;
+            this.bean = bean;
+        }
+    }
+}
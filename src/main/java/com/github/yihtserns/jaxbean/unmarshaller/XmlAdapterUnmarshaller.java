@@ -15,15 +15,19 @@
  */
 package com.github.yihtserns.jaxbean.unmarshaller;
 
+import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.Frame;
+import com.github.yihtserns.jaxbean.unmarshaller.Unmarshaller.FrameUnmarshaller;
 import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import java.util.Map;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 
 /**
  *
  * @author yihtserns
  */
-class XmlAdapterUnmarshaller<N extends Node> implements Unmarshaller<N> {
+class XmlAdapterUnmarshaller<N extends Node> implements Unmarshaller<N>, FrameUnmarshaller {
 
     private XmlAdapter xmlAdapter;
     private Unmarshaller<N> delegate;
@@ -38,4 +42,43 @@ class XmlAdapterUnmarshaller<N extends Node> implements Unmarshaller<N> {
 
         return beanHandler.unmarshalWith(xmlAdapter, value);
     }
+
+    /**
+     * Hands out the element itself as the only child, to be unmarshalled by the delegate before being adapted.
+     */
+    @Override
+    public Frame newFrame(final Element element, final BeanHandler beanHandler) {
+        return new Frame() {
+
+            private boolean delegated = false;
+            private Object value;
+
+            public Element nextChild() {
+                if (delegated) {
+                    return null;
+                }
+                delegated = true;
+                return element;
+            }
+
+            public Unmarshaller<Element> getChildUnmarshaller() {
+                return (Unmarshaller<Element>) delegate;
+            }
+
+            public void accept(Object value) {
+                this.value = value;
+            }
+
+            public Object complete() throws Exception {
+                return beanHandler.unmarshalWith(xmlAdapter, value);
+            }
+        };
+    }
+
+    /**
+     * @see BeanUnmarshaller#remap(Unmarshaller, java.util.Map)
+     */
+    public XmlAdapterUnmarshaller<Element> remap(Map<Unmarshaller<?>, Unmarshaller<?>> original2Copy) {
+        return new XmlAdapterUnmarshaller<Element>(xmlAdapter, BeanUnmarshaller.remap((Unmarshaller<Element>) delegate, original2Copy));
+    }
 }
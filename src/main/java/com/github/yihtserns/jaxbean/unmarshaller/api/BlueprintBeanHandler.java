@@ -15,26 +15,45 @@
  */
 package com.github.yihtserns.jaxbean.unmarshaller.api;
 
+import java.util.AbstractList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 import org.apache.aries.blueprint.ParserContext;
+import org.apache.aries.blueprint.PassThroughMetadata;
 import org.apache.aries.blueprint.mutable.MutableBeanMetadata;
 import org.apache.aries.blueprint.mutable.MutableCollectionMetadata;
 import org.apache.aries.blueprint.mutable.MutablePassThroughMetadata;
-import org.apache.aries.blueprint.mutable.MutableValueMetadata;
 import org.osgi.service.blueprint.reflect.Metadata;
+import org.osgi.service.blueprint.reflect.ValueMetadata;
 import org.springframework.beans.factory.config.MethodInvokingFactoryBean;
 
 /**
+ * Safe to share across threads and unmarshal calls: the value and adapter metadata it caches are immutable, so the
+ * same instance can appear in several places of one graph, or in several graphs, without one affecting the others.
  *
  * @author yihtserns
  */
-public class BlueprintBeanHandler implements BeanHandler<MutableBeanMetadata> {
+public class BlueprintBeanHandler implements BeanHandler<MutableBeanMetadata>, ListCreatingBeanHandler {
 
     private ParserContext parserContext;
+    private boolean eagerAdapters;
+    private ConcurrentMap<String, Metadata> string2Metadata = new ConcurrentHashMap<String, Metadata>();
+    private ConcurrentMap<XmlAdapter, Metadata> xmlAdapter2Metadata = new ConcurrentHashMap<XmlAdapter, Metadata>();
 
     public BlueprintBeanHandler(ParserContext parserContext) {
+        this(parserContext, false);
+    }
+
+    /**
+     * @param eagerAdapters {@code true} to treat {@link XmlAdapter}s as stateless and apply them while parsing when
+     * the value to adapt is a plain literal, i.e. not a metadata, and without any <code>${...}</code> placeholder
+     */
+    public BlueprintBeanHandler(ParserContext parserContext, boolean eagerAdapters) {
         this.parserContext = parserContext;
+        this.eagerAdapters = eagerAdapters;
     }
 
     @Override
@@ -50,24 +69,45 @@ public class BlueprintBeanHandler implements BeanHandler<MutableBeanMetadata> {
         bean.addProperty(propertyName, toMetadata(propertyValue));
     }
 
+    /**
+     * One immutable instance is shared by all identical strings (placeholder processing replaces value metadata
+     * instead of modifying them).
+     */
     private Metadata toMetadata(Object value) {
         if (value instanceof Metadata) {
             return (Metadata) value;
         }
 
-        MutableValueMetadata valueMetadata = parserContext.createMetadata(MutableValueMetadata.class);
-        valueMetadata.setStringValue((String) value);
+        String string = (String) value;
+        Metadata metadata = string2Metadata.get(string);
+        if (metadata == null) {
+            Metadata existing = string2Metadata.putIfAbsent(string, metadata = new SharedValueMetadata(string));
+            if (existing != null) {
+                metadata = existing;
+            }
+        }
 
-        return valueMetadata;
+        return metadata;
     }
 
     @Override
     public Object unmarshalWith(XmlAdapter xmlAdapter, Object from) throws Exception {
+        if (eagerAdapters && PlainLiterals.isPlainLiteral(from)) {
+            return toPassThroughMetadata(xmlAdapter.unmarshal(from));
+        }
+
         MutableCollectionMetadata argumentsMetadata = parserContext.createMetadata(MutableCollectionMetadata.class);
         argumentsMetadata.addValue(toMetadata(from));
 
-        MutablePassThroughMetadata xmlAdapterMetadata = parserContext.createMetadata(MutablePassThroughMetadata.class);
-        xmlAdapterMetadata.setObject(xmlAdapter);
+        Metadata xmlAdapterMetadata = xmlAdapter2Metadata.get(xmlAdapter);
+        if (xmlAdapterMetadata == null) {
+            Metadata existing = xmlAdapter2Metadata.putIfAbsent(
+                    xmlAdapter,
+                    xmlAdapterMetadata = new SharedPassThroughMetadata(xmlAdapter));
+            if (existing != null) {
+                xmlAdapterMetadata = existing;
+            }
+        }
 
         MutableBeanMetadata factoryBeanMetadata = parserContext.createMetadata(MutableBeanMetadata.class);
         factoryBeanMetadata.setRuntimeClass(MethodInvokingFactoryBean.class);
@@ -83,8 +123,23 @@ public class BlueprintBeanHandler implements BeanHandler<MutableBeanMetadata> {
         return beanMetadata;
     }
 
+    private Metadata toPassThroughMetadata(Object object) {
+        MutablePassThroughMetadata passThroughMetadata = parserContext.createMetadata(MutablePassThroughMetadata.class);
+        passThroughMetadata.setObject(object);
+
+        return passThroughMetadata;
+    }
+
+    @Override
+    public List<Object> createList(int expectedSize) {
+        return new MetadataList(parserContext.createMetadata(MutableCollectionMetadata.class));
+    }
+
     @Override
     public Object postProcessList(List<Object> unprocessedList) {
+        if (unprocessedList instanceof MetadataList) {
+            return ((MetadataList) unprocessedList).collectionMetadata;
+        }
         MutableCollectionMetadata processedCollection = parserContext.createMetadata(MutableCollectionMetadata.class);
         for (Object value : unprocessedList) {
             processedCollection.addValue(toMetadata(value));
@@ -97,4 +152,80 @@ public class BlueprintBeanHandler implements BeanHandler<MutableBeanMetadata> {
     public Object postProcess(MutableBeanMetadata bean) {
         return bean;
     }
+
+    private static final class SharedValueMetadata implements ValueMetadata {
+
+        private final String stringValue;
+
+        public SharedValueMetadata(String stringValue) {
+            this.stringValue = stringValue;
+        }
+
+        @Override
+        public String getStringValue() {
+            return stringValue;
+        }
+
+        @Override
+        public String getType() {
+            return null;
+        }
+    }
+
+    private static final class SharedPassThroughMetadata implements PassThroughMetadata {
+
+        private final Object object;
+
+        public SharedPassThroughMetadata(Object object) {
+            this.object = object;
+        }
+
+        @Override
+        public Object getObject() {
+            return object;
+        }
+
+        @Override
+        public String getId() {
+            return null;
+        }
+
+        @Override
+        public int getActivation() {
+            return ACTIVATION_EAGER;
+        }
+
+        @Override
+        public List<String> getDependsOn() {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Adds items straight into the collection metadata, converting them along the way.
+     */
+    private final class MetadataList extends AbstractList<Object> {
+
+        private MutableCollectionMetadata collectionMetadata;
+
+        public MetadataList(MutableCollectionMetadata collectionMetadata) {
+            this.collectionMetadata = collectionMetadata;
+        }
+
+        @Override
+        public boolean add(Object value) {
+            collectionMetadata.addValue(toMetadata(value));
+            return true;
+        }
+
+        @Override
+        public Object get(int index) {
+            return collectionMetadata.getValues().get(index);
+        }
+
+        @Override
+        public int size() {
+            return collectionMetadata.getValues().size();
+        }
+    }
 }
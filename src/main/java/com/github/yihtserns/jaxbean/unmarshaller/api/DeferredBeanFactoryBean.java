@@ -0,0 +1,119 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller.api;
+
+import com.github.yihtserns.jaxbean.unmarshaller.JaxbeanUnmarshaller;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionVisitor;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionBuilder;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.util.StringValueResolver;
+import org.w3c.dom.Element;
+
+/**
+ * Holds on to an element (and so its whole DOM document) in place of the bean definitions it would unmarshal into,
+ * and only unmarshals & instantiates it when the bean is first requested, e.g.
+ * <pre>
+ * protected AbstractBeanDefinition parseInternal(Element element, ParserContext parserContext) {
+ *     return DeferredBeanFactoryBean.createBeanDefinition(unmarshaller, element);
+ * }
+ * </pre>
+ * Property placeholders in the element are resolved using the container's embedded value resolvers, e.g. the ones
+ * registered by {@code PropertyPlaceholderConfigurer}.
+ *
+ * @author yihtserns
+ */
+public class DeferredBeanFactoryBean implements FactoryBean<Object>, BeanFactoryAware, DisposableBean {
+
+    private static final String DEFERRED_BEAN_NAME = "deferred";
+    private JaxbeanUnmarshaller unmarshaller;
+    private Element element;
+    private Class<?> objectType;
+    private ConfigurableBeanFactory beanFactory;
+    private DefaultListableBeanFactory deferredBeanFactory;
+    private Object bean;
+
+    public DeferredBeanFactoryBean(JaxbeanUnmarshaller unmarshaller, Element element) {
+        this.unmarshaller = unmarshaller;
+        this.element = element;
+        this.objectType = unmarshaller.getTypeOf(element);
+    }
+
+    /**
+     * @return lazy-init definition of a {@link DeferredBeanFactoryBean} for the given element
+     */
+    public static AbstractBeanDefinition createBeanDefinition(JaxbeanUnmarshaller unmarshaller, Element element) {
+        return BeanDefinitionBuilder.genericBeanDefinition(DeferredBeanFactoryBean.class)
+                .addConstructorArgValue(unmarshaller)
+                .addConstructorArgValue(element)
+                .setLazyInit(true)
+                .getBeanDefinition();
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        this.beanFactory = (ConfigurableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public synchronized Object getObject() throws Exception {
+        if (bean != null) {
+            return bean;
+        }
+        BeanDefinition beanDefinition = (BeanDefinition) unmarshaller.unmarshal(element, SpringBeanHandler.INSTANCE);
+        new BeanDefinitionVisitor(new StringValueResolver() {
+
+            public String resolveStringValue(String value) {
+                return beanFactory.resolveEmbeddedValue(value);
+            }
+        }).visitBeanDefinition(beanDefinition);
+
+        deferredBeanFactory = new DefaultListableBeanFactory(beanFactory);
+        deferredBeanFactory.copyConfigurationFrom(beanFactory);
+        deferredBeanFactory.registerBeanDefinition(DEFERRED_BEAN_NAME, beanDefinition);
+        bean = deferredBeanFactory.getBean(DEFERRED_BEAN_NAME);
+
+        // Later calls get the same bean, so the DOM can go
+        unmarshaller = null;
+        element = null;
+
+        return bean;
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (deferredBeanFactory != null) {
+            deferredBeanFactory.destroySingletons();
+        }
+    }
+
+    @Override
+    public Class<?> getObjectType() {
+        return objectType;
+    }
+
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+}
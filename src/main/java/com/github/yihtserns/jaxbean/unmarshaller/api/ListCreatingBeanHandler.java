@@ -0,0 +1,34 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller.api;
+
+import java.util.List;
+
+/**
+ * Optionally implemented by a {@link BeanHandler} that wants to create the lists that the items of a list property
+ * (or element wrapper) are added into, e.g. to build its own list type directly instead of copying into it in
+ * {@link BeanHandler#postProcessList(List)}. Otherwise, the items are added into an {@code ArrayList}.
+ *
+ * @author yihtserns
+ */
+public interface ListCreatingBeanHandler {
+
+    /**
+     * @param expectedSize number of items that will be added
+     * @return list to be passed to {@link BeanHandler#postProcessList(List)} once all items have been added
+     */
+    List<Object> createList(int expectedSize);
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller.api;
+
+/**
+ *
+ * @author yihtserns
+ */
+final class PlainLiterals {
+
+    private PlainLiterals() {
+    }
+
+    /**
+     * @return {@code true} if value is a string that the container won't resolve further, i.e. without any
+     * <code>${...}</code> placeholder or <code>#{...}</code> expression
+     */
+    public static boolean isPlainLiteral(Object value) {
+        if (!(value instanceof String)) {
+            return false;
+        }
+        String string = (String) value;
+        return !string.contains("${") && !string.contains("#{");
+    }
+}
@@ -25,9 +25,21 @@ import org.springframework.beans.factory.support.ManagedList;
  *
  * @author yihtserns
  */
-public enum SpringBeanHandler implements BeanHandler<BeanDefinitionBuilder> {
+public enum SpringBeanHandler implements BeanHandler<BeanDefinitionBuilder>, ListCreatingBeanHandler {
 
-    INSTANCE;
+    INSTANCE(false),
+    /**
+     * Like {@link #INSTANCE}, but treats {@link XmlAdapter}s as stateless and applies them while parsing when the
+     * value to adapt is a plain literal, i.e. not a bean definition, and without any <code>${...}</code> placeholder
+     * or <code>#{...}</code> expression. This saves the container from creating a factory bean per adapted value.
+     */
+    EAGER_ADAPTER_INSTANCE(true);
+
+    private final boolean eagerAdapters;
+
+    private SpringBeanHandler(boolean eagerAdapters) {
+        this.eagerAdapters = eagerAdapters;
+    }
 
     @Override
     public BeanDefinitionBuilder createBean(Class<?> beanClass) {
@@ -41,6 +53,9 @@ public enum SpringBeanHandler implements BeanHandler<BeanDefinitionBuilder> {
 
     @Override
     public Object unmarshalWith(XmlAdapter xmlAdapter, Object from) throws Exception {
+        if (eagerAdapters && PlainLiterals.isPlainLiteral(from)) {
+            return xmlAdapter.unmarshal(from);
+        }
         return BeanDefinitionBuilder.genericBeanDefinition(MethodInvokingFactoryBean.class)
                 .addPropertyValue("targetObject", xmlAdapter)
                 .addPropertyValue("targetMethod", "unmarshal")
@@ -48,8 +63,16 @@ public enum SpringBeanHandler implements BeanHandler<BeanDefinitionBuilder> {
                 .getBeanDefinition();
     }
 
+    @Override
+    public List<Object> createList(int expectedSize) {
+        return new ManagedList<Object>(expectedSize);
+    }
+
     @Override
     public Object postProcessList(List<Object> unprocessedList) {
+        if (unprocessedList instanceof ManagedList) {
+            return unprocessedList;
+        }
         ManagedList<Object> processedList = new ManagedList<Object>(unprocessedList.size());
         for (Object value : unprocessedList) {
             processedList.add(value);
@@ -15,6 +15,7 @@
  */
 package com.github.yihtserns.jaxbean.unmarshaller;
 
+import java.beans.ConstructorProperties;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -421,6 +422,19 @@ public abstract class AbstractSpecTest {
         assertThat(result.getChild().getNote().getText(), is("A child"));
     }
 
+    @Test
+    public void canUnmarshalTextSplitByCdataAndComments() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <child>\n"
+                + "    <note>A <![CDATA[<small>]]><!-- ignored --> child</note>\n"
+                + "  </child>\n"
+                + "  <alias>Th<!-- ignored -->is</alias>\n"
+                + "</jaxbObject>";
+        JaxbObject result = unmarshal(xml, JaxbObject.class);
+        assertThat(result.getChild().getNote().getText(), is("A <small> child"));
+        assertThat(result.getAliases(), contains("This"));
+    }
+
     @Test
     public void canUnmarshalXmlElementRefSublasses() throws Exception {
         {
@@ -486,6 +500,31 @@ public abstract class AbstractSpecTest {
         assertThat(result.getAnnotationAttr().getText(), is("WIP"));
     }
 
+    @Test
+    public void canUnmarshalClassWithBothNoArgAndConstructorPropertiesConstructors() throws Exception {
+        String xml = "<allArgsObject xmlns=\"http://example.com/jaxb\" name=\"All args\" count=\"3\"/>";
+        AllArgsObject result = unmarshal(xml, AllArgsObject.class);
+        assertThat(result.getName(), is("All args"));
+        assertThat(result.getCount(), is(3));
+    }
+
+    @Test
+    public void canUnmarshalIntoPrimitiveAndConvertedArrays() throws Exception {
+        String xml = "<numbersObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <number>1</number>\n"
+                + "  <number>2</number>\n"
+                + "  <boxedNumber>3</boxedNumber>\n"
+                + "  <values><value>4</value><value>5</value></values>\n"
+                + "</numbersObject>";
+        NumbersObject result = unmarshal(xml, NumbersObject.class);
+        assertThat(result.getNumbers().length, is(2));
+        assertThat(result.getNumbers()[0], is(1L));
+        assertThat(result.getNumbers()[1], is(2L));
+        assertThat(result.getBoxedNumbers(), is(arrayContaining(3L)));
+        assertThat(result.getValues().length, is(2));
+        assertThat(result.getValues()[1], is(5L));
+    }
+
     protected abstract <T> T unmarshal(String xml, Class<T> rootType, Class<?>... otherTypes) throws Exception;
 
     protected static <T> T[] merge(T item, T... others) {
@@ -496,6 +535,96 @@ public abstract class AbstractSpecTest {
         return merged.toArray((T[]) Array.newInstance(item.getClass(), merged.size()));
     }
 
+    @XmlRootElement(namespace = "http://example.com/jaxb")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static final class NumbersObject {
+
+        @XmlJavaTypeAdapter(LongAdapter.class)
+        @XmlElement(name = "number")
+        private long[] numbers;
+        @XmlElement(name = "boxedNumber", type = String.class)
+        private Long[] boxedNumbers;
+        @XmlJavaTypeAdapter(LongAdapter.class)
+        @XmlElementWrapper
+        @XmlElement(name = "value")
+        private long[] values;
+
+        public long[] getNumbers() {
+            return numbers;
+        }
+
+        public void setNumbers(long[] numbers) {
+            this.numbers = numbers;
+        }
+
+        public Long[] getBoxedNumbers() {
+            return boxedNumbers;
+        }
+
+        public void setBoxedNumbers(Long[] boxedNumbers) {
+            this.boxedNumbers = boxedNumbers;
+        }
+
+        public long[] getValues() {
+            return values;
+        }
+
+        public void setValues(long[] values) {
+            this.values = values;
+        }
+
+        public static final class LongAdapter extends XmlAdapter<String, Long> {
+
+            @Override
+            public Long unmarshal(String vt) throws Exception {
+                return Long.valueOf(vt);
+            }
+
+            @Override
+            public String marshal(Long bt) throws Exception {
+                return bt.toString();
+            }
+        }
+    }
+
+    /**
+     * Shaped like a Lombok {@code @NoArgsConstructor @AllArgsConstructor @Data} class.
+     */
+    @XmlRootElement(namespace = "http://example.com/jaxb")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static final class AllArgsObject {
+
+        @XmlAttribute
+        private String name;
+        @XmlAttribute
+        private int count;
+
+        public AllArgsObject() {
+        }
+
+        @ConstructorProperties({"name", "count"})
+        public AllArgsObject(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+    }
+
     @XmlRootElement(namespace = "http://example.com/jaxb")
     public static final class JaxbObject extends JaxbParent {
 
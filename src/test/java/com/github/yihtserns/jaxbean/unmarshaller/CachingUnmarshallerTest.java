@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class CachingUnmarshallerTest {
+
+    @Test
+    public void canCacheResultOfIdenticalDocuments() throws Exception {
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject.class);
+        CachingUnmarshaller cachingUnmarshaller = new CachingUnmarshaller(unmarshaller, 1, CachingUnmarshaller.Mode.SHARE_RESULT);
+
+        Object first = cachingUnmarshaller.unmarshal("<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"1st\"/>".getBytes("UTF-8"));
+        assertThat(cachingUnmarshaller.unmarshal("<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"1st\"/>".getBytes("UTF-8")),
+                is(sameInstance(first)));
+
+        Object second = cachingUnmarshaller.unmarshal("<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"2nd\"/>".getBytes("UTF-8"));
+        assertThat(((JaxbObject) second).getId(), is("2nd"));
+        assertThat(cachingUnmarshaller.unmarshal("<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"1st\"/>".getBytes("UTF-8")),
+                is(not(sameInstance(first))));
+    }
+
+    @Test
+    public void canRebindCachedDocument() throws Exception {
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject.class);
+        CachingUnmarshaller cachingUnmarshaller = new CachingUnmarshaller(unmarshaller, 10, CachingUnmarshaller.Mode.REBIND_RESULT);
+        byte[] xml = "<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"1st\"/>".getBytes("UTF-8");
+
+        JaxbObject first = (JaxbObject) cachingUnmarshaller.unmarshal(xml);
+        JaxbObject second = (JaxbObject) cachingUnmarshaller.unmarshal(xml);
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.getId(), is("1st"));
+    }
+}
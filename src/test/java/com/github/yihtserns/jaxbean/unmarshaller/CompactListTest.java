@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbChild;
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import com.github.yihtserns.jaxbean.unmarshaller.api.ListCreatingBeanHandler;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+/**
+ * @author yihtserns
+ */
+public class CompactListTest {
+
+    @Test
+    public void canCompactListProperties() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <children name=\"1st\"/>\n"
+                + "  <alias>This</alias>\n"
+                + "  <children name=\"2nd\"/>\n"
+                + "  <options2/>\n"
+                + "  <childrenArray valid=\"true\"/>\n"
+                + "</jaxbObject>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(
+                new Configuration().compactLists(),
+                JaxbObject.class);
+        JaxbObject result = (JaxbObject) unmarshaller.unmarshal(toElement(xml));
+
+        assertThat(result.getChildren(), hasSize(2));
+        assertThat(result.getChildren().get(1).getName(), is("2nd"));
+        assertThat(result.getAliases(), is(Collections.singletonList("This")));
+        assertThat(result.getOptions2(), is(sameInstance(Collections.<String>emptyList())));
+        assertThat(result.getChildrenArray(), arrayWithSize(1));
+        try {
+            result.getChildren().add(new JaxbChild());
+            fail("Compacted list should be immutable");
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldCompactListWithoutCopying() throws Exception {
+        BeanHandler beanHandler = JaxbeanUnmarshaller.ObjectBeanHandler.COMPACT;
+        List<Object> list = ((ListCreatingBeanHandler) beanHandler).createList(2);
+        list.add("1st");
+        list.add("2nd");
+
+        Object compacted = beanHandler.postProcessList(list);
+        assertThat(compacted, is(sameInstance((Object) list)));
+        assertThat(list, contains((Object) "1st", "2nd"));
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbChild;
+import java.beans.ConstructorProperties;
+import java.util.List;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import org.junit.Test;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class ConstructorBindingTest {
+
+    @Test
+    public void canBindThroughConstructor() throws Exception {
+        String xml = "<immutableObject xmlns=\"http://example.com/jaxb\" name=\"Immutable\" count=\"3\">\n"
+                + "  <children name=\"1st\"/>\n"
+                + "  <children name=\"2nd\"/>\n"
+                + "</immutableObject>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(ImmutableObject.class);
+
+        ImmutableObject result = (ImmutableObject) unmarshaller.unmarshal(toElement(xml));
+        assertThat(result.getName(), is("Immutable"));
+        assertThat(result.getCount(), is(3));
+        assertThat(result.getChildren(), hasSize(2));
+        assertThat(result.getChildren().get(1).getName(), is("2nd"));
+
+        ImmutableObject emptyResult = (ImmutableObject) unmarshaller.unmarshal(
+                toElement("<immutableObject xmlns=\"http://example.com/jaxb\"/>"));
+        assertThat(emptyResult.getName(), is(nullValue()));
+        assertThat(emptyResult.getCount(), is(0));
+        assertThat(emptyResult.getChildren(), is(nullValue()));
+    }
+
+    @XmlRootElement(namespace = "http://example.com/jaxb")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static final class ImmutableObject {
+
+        @XmlAttribute
+        private final String name;
+        @XmlAttribute
+        private final int count;
+        @XmlElement
+        private final List<JaxbChild> children;
+
+        @ConstructorProperties({"name", "count", "children"})
+        public ImmutableObject(String name, int count, List<JaxbChild> children) {
+            this.name = name;
+            this.count = count;
+            this.children = children;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public List<JaxbChild> getChildren() {
+            return children;
+        }
+    }
+}
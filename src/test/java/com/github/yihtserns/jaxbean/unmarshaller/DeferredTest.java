@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbChild;
+import java.util.List;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import org.junit.Test;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+/**
+ * @author yihtserns
+ */
+public class DeferredTest {
+
+    @Test
+    public void canDeferUnmarshallingOfChild() throws Exception {
+        String xml = "<lazyObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <child name=\"A Child\"/>\n"
+                + "  <children name=\"1st\"/>\n"
+                + "  <children name=\"2nd\" unknown=\"fails when unmarshalled\"/>\n"
+                + "</lazyObject>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(LazyObject.class);
+        LazyObject result = (LazyObject) unmarshaller.unmarshal(toElement(xml));
+
+        JaxbChild child = result.getChild().get();
+        assertThat(child.getName(), is("A Child"));
+        assertThat(result.getChild().get(), is(sameInstance(child)));
+        assertThat(result.getChildren(), hasSize(2));
+        assertThat(result.getChildren().get(0).get().getName(), is("1st"));
+        try {
+            result.getChildren().get(1).get();
+            fail("Deferred child should only fail when unmarshalled");
+        } catch (IllegalStateException ex) {
+            assertThat(ex.getCause(), is(instanceOf(IllegalArgumentException.class)));
+        }
+    }
+
+    @XmlRootElement(namespace = "http://example.com/jaxb")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static final class LazyObject {
+
+        @XmlElement
+        private Deferred<JaxbChild> child;
+        @XmlElement
+        private List<Deferred<JaxbChild>> children;
+
+        public Deferred<JaxbChild> getChild() {
+            return child;
+        }
+
+        public void setChild(Deferred<JaxbChild> child) {
+            this.child = child;
+        }
+
+        public List<Deferred<JaxbChild>> getChildren() {
+            return children;
+        }
+
+        public void setChildren(List<Deferred<JaxbChild>> children) {
+            this.children = children;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class DocumentsTest {
+
+    private static final String SECRET = "Not for the document";
+    private static File secretFile;
+
+    @BeforeClass
+    public static void writeSecretFile() throws Exception {
+        secretFile = File.createTempFile("secret", ".txt");
+        OutputStream outputStream = new FileOutputStream(secretFile);
+        try {
+            outputStream.write(SECRET.getBytes("UTF-8"));
+        } finally {
+            outputStream.close();
+        }
+    }
+
+    @AfterClass
+    public static void deleteSecretFile() {
+        secretFile.delete();
+    }
+
+    @Test
+    public void shouldNotResolveExternalEntityWhenParsingIntoDom() throws Exception {
+        try {
+            String text = Documents.parse(externalEntityPayload()).getTextContent();
+            assertThat(text, not(containsString(SECRET)));
+        } catch (SAXException ex) {
+            // Rejecting the document outright is fine too
+        }
+    }
+
+    @Test
+    public void shouldNotResolveExternalEntityWhenParsingIntoEvents() throws Exception {
+        final StringBuilder text = new StringBuilder();
+        try {
+            Documents.parse(externalEntityPayload(), new DefaultHandler() {
+
+                @Override
+                public void characters(char[] chars, int start, int length) {
+                    text.append(chars, start, length);
+                }
+            });
+        } catch (SAXException ex) {
+            // Rejecting the document outright is fine too
+        }
+        assertThat(text.toString(), not(containsString(SECRET)));
+    }
+
+    @Test
+    public void shouldNotResolveExternalEntityWhenUnmarshallingStream() throws Exception {
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(AbstractSpecTest.JaxbObject.class);
+        String xml = "<!DOCTYPE jaxbObject [<!ENTITY xxe SYSTEM \"" + secretFile.toURI() + "\">]>\n"
+                + "<jaxbObject xmlns=\"http://example.com/jaxb\"><alias>&xxe;</alias></jaxbObject>";
+        try {
+            AbstractSpecTest.JaxbObject result = (AbstractSpecTest.JaxbObject) unmarshaller.unmarshal(
+                    new ByteArrayInputStream(xml.getBytes("UTF-8")));
+            assertThat(result.getAliases(), not(hasItem(containsString(SECRET))));
+        } catch (SAXException ex) {
+            // Rejecting the document outright is fine too
+        }
+    }
+
+    private static InputStream externalEntityPayload() throws Exception {
+        String xml = "<!DOCTYPE root [<!ENTITY xxe SYSTEM \"" + secretFile.toURI() + "\">]>\n"
+                + "<root>&xxe;</root>";
+        return new ByteArrayInputStream(xml.getBytes("UTF-8"));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2015 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import java.lang.ref.WeakReference;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class IncrementalUnmarshallerTest {
+
+    @Test
+    public void canReuseBeansOfUnchangedElements() throws Exception {
+        IncrementalUnmarshaller unmarshaller = JaxbeanUnmarshaller.newIncrementalInstance(JaxbObject.class);
+        JaxbObject first = (JaxbObject) unmarshaller.unmarshal(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"1\">\n"
+                + "  <child name=\"Unchanged\"/>\n"
+                + "  <children name=\"1st\"/>\n"
+                + "  <children name=\"2nd\"/>\n"
+                + "</jaxbObject>"));
+        JaxbObject second = (JaxbObject) unmarshaller.unmarshal(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"1\">\n"
+                + "  <child name=\"Unchanged\"/>\n"
+                + "  <children name=\"1st\"/>\n"
+                + "  <children name=\"Changed\"/>\n"
+                + "</jaxbObject>"));
+
+        assertThat(second, is(not(sameInstance(first))));
+        assertThat(second.getCount(), is(1));
+        assertThat(second.getChild(), is(sameInstance(first.getChild())));
+        assertThat(second.getChildren().get(0), is(sameInstance(first.getChildren().get(0))));
+        assertThat(second.getChildren().get(1), is(not(sameInstance(first.getChildren().get(1)))));
+        assertThat(second.getChildren().get(1).getName(), is("Changed"));
+
+        JaxbObject third = (JaxbObject) unmarshaller.unmarshal(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"1\">\n"
+                + "  <child name=\"Unchanged\"/>\n"
+                + "  <children name=\"1st\"/>\n"
+                + "  <children name=\"Changed\"/>\n"
+                + "</jaxbObject>"));
+        assertThat(third, is(sameInstance(second)));
+    }
+
+    @Test
+    public void canReuseBeansInsideSubtreeReusedByPreviousRun() throws Exception {
+        IncrementalUnmarshaller unmarshaller = JaxbeanUnmarshaller.newIncrementalInstance(JaxbObject.class);
+        JaxbObject first = (JaxbObject) unmarshaller.unmarshal(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"1\">\n"
+                + "  <child name=\"Parent\">\n"
+                + "    <children name=\"Unchanged\"/>\n"
+                + "    <children name=\"1st\"/>\n"
+                + "  </child>\n"
+                + "</jaxbObject>"));
+        JaxbObject second = (JaxbObject) unmarshaller.unmarshal(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"2\">\n"
+                + "  <child name=\"Parent\">\n"
+                + "    <children name=\"Unchanged\"/>\n"
+                + "    <children name=\"1st\"/>\n"
+                + "  </child>\n"
+                + "</jaxbObject>"));
+        assertThat(second.getChild(), is(sameInstance(first.getChild())));
+
+        JaxbObject third = (JaxbObject) unmarshaller.unmarshal(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"2\">\n"
+                + "  <child name=\"Parent\">\n"
+                + "    <children name=\"Unchanged\"/>\n"
+                + "    <children name=\"2nd\"/>\n"
+                + "  </child>\n"
+                + "</jaxbObject>"));
+        assertThat(third.getChild(), is(not(sameInstance(first.getChild()))));
+        assertThat(third.getChild().getChildren().get(0), is(sameInstance(first.getChild().getChildren().get(0))));
+        assertThat(third.getChild().getChildren().get(1).getName(), is("2nd"));
+
+        JaxbObject fourth = (JaxbObject) unmarshaller.unmarshal(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"2\">\n"
+                + "  <child name=\"Parent\">\n"
+                + "    <children name=\"Unchanged\"/>\n"
+                + "    <children name=\"3rd\"/>\n"
+                + "  </child>\n"
+                + "</jaxbObject>"));
+        assertThat(fourth.getChild().getChildren().get(0), is(sameInstance(first.getChild().getChildren().get(0))));
+        assertThat(fourth.getChild().getChildren().get(1).getName(), is("3rd"));
+    }
+
+    @Test
+    public void shouldNotRetainDocumentsOfPreviousRuns() throws Exception {
+        IncrementalUnmarshaller unmarshaller = JaxbeanUnmarshaller.newIncrementalInstance(JaxbObject.class);
+        Element first = toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"1\">\n"
+                + "  <child name=\"Unchanged\"><children name=\"Nested\"/></child>\n"
+                + "</jaxbObject>");
+        unmarshaller.unmarshal(first);
+        WeakReference<Document> firstDocument = new WeakReference<Document>(first.getOwnerDocument());
+        first = null;
+
+        for (int i = 2; i <= 3; i++) {
+            unmarshaller.unmarshal(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"" + i + "\">\n"
+                    + "  <child name=\"Unchanged\"><children name=\"Nested\"/></child>\n"
+                    + "</jaxbObject>"));
+        }
+        for (int i = 0; i < 50 && firstDocument.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(firstDocument.get(), is(nullValue()));
+    }
+
+    @Test
+    public void canReuseBeansOfVeryDeepDocument() throws Exception {
+        IncrementalUnmarshaller unmarshaller = JaxbeanUnmarshaller.newIncrementalInstance(
+                new Configuration().unmarshalIteratively(),
+                IterativeUnmarshallingTest.Tree.class);
+        int depth = 20000;
+
+        IterativeUnmarshallingTest.Tree first = (IterativeUnmarshallingTest.Tree) unmarshaller.unmarshal(
+                toElement(deepTree(depth, 0, depth - 1)));
+        IterativeUnmarshallingTest.Tree second = (IterativeUnmarshallingTest.Tree) unmarshaller.unmarshal(
+                toElement(deepTree(depth, -1, depth - 1)));
+        assertThat(second.getLevel(), is(-1));
+        assertThat(second.getTree(), is(sameInstance(first.getTree())));
+
+        IterativeUnmarshallingTest.Tree third = (IterativeUnmarshallingTest.Tree) unmarshaller.unmarshal(
+                toElement(deepTree(depth, -1, -2)));
+        assertThat(third.getTree(), is(not(sameInstance(second.getTree()))));
+    }
+
+    private static String deepTree(int depth, int rootLevel, int deepestLevel) {
+        StringBuilder xml = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            int level = i == 0 ? rootLevel : i == depth - 1 ? deepestLevel : i;
+            xml.append("<tree xmlns=\"http://example.com/jaxb\" level=\"").append(level).append("\">");
+        }
+        for (int i = 0; i < depth; i++) {
+            xml.append("</tree>");
+        }
+        return xml.toString();
+    }
+}
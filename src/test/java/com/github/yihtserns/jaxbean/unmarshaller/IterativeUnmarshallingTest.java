@@ -0,0 +1,123 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import org.junit.Test;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class IterativeUnmarshallingTest extends AbstractSpecTest {
+
+    @Override
+    protected <T> T unmarshal(String xml, Class<T> rootType, Class<?>... allTypes) throws Exception {
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(
+                new Configuration().unmarshalIteratively(),
+                merge(rootType, allTypes));
+
+        return rootType.cast(unmarshaller.unmarshal(toElement(xml)));
+    }
+
+    @Test
+    public void canUnmarshalVeryDeepDocument() throws Exception {
+        int depth = 20000;
+        StringBuilder xml = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            xml.append("<tree xmlns=\"http://example.com/jaxb\" level=\"").append(i).append("\">");
+        }
+        for (int i = 0; i < depth; i++) {
+            xml.append("</tree>");
+        }
+
+        Tree tree = unmarshal(xml.toString(), Tree.class);
+        int count = 0;
+        for (Tree current = tree; current != null; current = current.getTree()) {
+            assertThat(current.getLevel(), is(count));
+            count++;
+        }
+        assertThat(count, is(depth));
+    }
+
+    @Test
+    public void canResolveVeryDeepDeferredChild() throws Exception {
+        int depth = 20000;
+        StringBuilder xml = new StringBuilder("<deferredTree xmlns=\"http://example.com/jaxb\">");
+        for (int i = 0; i < depth; i++) {
+            xml.append("<tree level=\"").append(i).append("\">");
+        }
+        for (int i = 0; i < depth; i++) {
+            xml.append("</tree>");
+        }
+        xml.append("</deferredTree>");
+
+        DeferredTree deferredTree = unmarshal(xml.toString(), DeferredTree.class, Tree.class);
+        int count = 0;
+        for (Tree current = deferredTree.getTree().get(); current != null; current = current.getTree()) {
+            count++;
+        }
+        assertThat(count, is(depth));
+    }
+
+    @XmlRootElement(namespace = "http://example.com/jaxb")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static final class DeferredTree {
+
+        @XmlElement
+        private Deferred<Tree> tree;
+
+        public Deferred<Tree> getTree() {
+            return tree;
+        }
+
+        public void setTree(Deferred<Tree> tree) {
+            this.tree = tree;
+        }
+    }
+
+    @XmlRootElement(namespace = "http://example.com/jaxb")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static final class Tree {
+
+        @XmlAttribute
+        private Integer level;
+        @XmlElement
+        private Tree tree;
+
+        public Integer getLevel() {
+            return level;
+        }
+
+        public void setLevel(Integer level) {
+            this.level = level;
+        }
+
+        public Tree getTree() {
+            return tree;
+        }
+
+        public void setTree(Tree tree) {
+            this.tree = tree;
+        }
+    }
+}
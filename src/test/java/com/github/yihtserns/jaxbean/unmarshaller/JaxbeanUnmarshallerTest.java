@@ -15,11 +15,15 @@
  */
 package com.github.yihtserns.jaxbean.unmarshaller;
 
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject2;
+import java.io.ByteArrayInputStream;
 import java.io.StringReader;
-import javax.xml.parsers.DocumentBuilderFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.xml.sax.InputSource;
+import org.junit.Test;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
 
 /**
  * @author yihtserns
@@ -33,10 +37,88 @@ public class JaxbeanUnmarshallerTest extends AbstractSpecTest {
         return rootType.cast(unmarshaller.unmarshal(toElement(xml)));
     }
 
-    private static Element toElement(String xml) throws Exception {
-        DocumentBuilderFactory builderFactory = DocumentBuilderFactory.newInstance();
-        builderFactory.setNamespaceAware(true);
-        Document doc = builderFactory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
-        return doc.getDocumentElement();
+    @Test
+    public void canIgnoreUnmappedContent() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\" xmlns:v=\"http://example.com/vendor\""
+                + "    count=\"3\" v:extra=\"ignored\">\n"
+                + "  <v:extension>\n"
+                + "    <child name=\"Ignored\"/>\n"
+                + "  </v:extension>\n"
+                + "  <child name=\"A Child\" unknown=\"ignored\"/>\n"
+                + "</jaxbObject>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(
+                new Configuration().ignoreUnmappedContent(),
+                JaxbObject.class);
+        JaxbObject result = (JaxbObject) unmarshaller.unmarshal(toElement(xml));
+
+        assertThat(result.getCount(), is(3));
+        assertThat(result.getChild().getName(), is("A Child"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnmappedElementByDefault() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <extension/>\n"
+                + "</jaxbObject>";
+        unmarshal(xml, JaxbObject.class);
+    }
+
+    @Test
+    public void canUnmarshalFromStreamAndReader() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"Parsed\">\n"
+                + "  <children name=\"1st\"/>\n"
+                + "</jaxbObject>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject.class);
+
+        JaxbObject fromStream = (JaxbObject) unmarshaller.unmarshal(new ByteArrayInputStream(xml.getBytes("UTF-8")));
+        assertThat(fromStream.getId(), is("Parsed"));
+        assertThat(fromStream.getChildren().get(0).getName(), is("1st"));
+
+        JaxbObject fromReader = (JaxbObject) unmarshaller.unmarshal(new StringReader(xml));
+        assertThat(fromReader.getId(), is("Parsed"));
+        assertThat(fromReader.getChildren().get(0).getName(), is("1st"));
+    }
+
+    @Test
+    public void shouldShareBindingMetadataButNotGlobalElementsBetweenInstances() throws Exception {
+        String xml = "<secondJaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <jaxbObject displayName=\"First ref\"/>\n"
+                + "</secondJaxbObject>";
+        JaxbeanUnmarshaller withRefType = JaxbeanUnmarshaller.newInstance(JaxbObject2.class, JaxbObject.class);
+        JaxbeanUnmarshaller withoutRefType = JaxbeanUnmarshaller.newInstance(JaxbObject2.class);
+
+        assertThat(BindingMetadata.of(JaxbObject2.class), is(sameInstance(BindingMetadata.of(JaxbObject2.class))));
+
+        JaxbObject2 result = (JaxbObject2) withRefType.unmarshal(toElement(xml));
+        assertThat(((JaxbObject) result.getMultiGlobalChild()).getId(), is("First ref"));
+        try {
+            withoutRefType.unmarshal(toElement(xml));
+            fail("Should reject element that is only global in the other instance");
+        } catch (IllegalArgumentException ex) {
+            assertThat(ex.getMessage(), containsString("jaxbObject"));
+        }
+    }
+
+    @Test
+    public void canAddTypesToExistingUnmarshaller() throws Exception {
+        String xml = "<secondJaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <jaxbObject displayName=\"First ref\"/>\n"
+                + "</secondJaxbObject>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject2.class);
+        JaxbeanUnmarshaller extendedUnmarshaller = unmarshaller.withAdditionalTypes(JaxbObject.class);
+
+        JaxbObject2 result = (JaxbObject2) extendedUnmarshaller.unmarshal(toElement(xml));
+        assertThat(((JaxbObject) result.getMultiGlobalChild()).getId(), is("First ref"));
+
+        JaxbObject jaxbObject = (JaxbObject) extendedUnmarshaller.unmarshal(
+                toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"Global\"/>"));
+        assertThat(jaxbObject.getId(), is("Global"));
+
+        try {
+            unmarshaller.unmarshal(toElement(xml));
+            fail("Original unmarshaller should be left unchanged");
+        } catch (IllegalArgumentException ex) {
+            assertThat(ex.getMessage(), containsString("jaxbObject"));
+        }
     }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2015 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import com.github.yihtserns.jaxbean.unmarshaller.api.BeanHandler;
+import com.github.yihtserns.jaxbean.unmarshaller.api.ListCreatingBeanHandler;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import org.junit.Test;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class ListBuildingTest {
+
+    @Test
+    public void shouldAddListItemsIntoListCreatedByBeanHandler() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <children name=\"1st\"/>\n"
+                + "  <alias>This</alias>\n"
+                + "  <children name=\"2nd\"/>\n"
+                + "  <options2>\n"
+                + "    <option2>skip-invalid</option2>\n"
+                + "    <option2>purge-skipped</option2>\n"
+                + "  </options2>\n"
+                + "  <children name=\"3rd\"/>\n"
+                + "</jaxbObject>";
+        final List<Integer> expectedSizes = new ArrayList<Integer>();
+        final List<List<Object>> createdLists = new ArrayList<List<Object>>();
+        class ListCreatingObjectBeanHandler implements BeanHandler<BeanWrapper>, ListCreatingBeanHandler {
+
+            public BeanWrapper createBean(Class<?> beanClass) throws Exception {
+                return PropertyAccessorFactory.forBeanPropertyAccess(beanClass.newInstance());
+            }
+
+            public void setBeanProperty(BeanWrapper bean, String propertyName, Object propertyValue) {
+                bean.setPropertyValue(propertyName, propertyValue);
+            }
+
+            public Object unmarshalWith(XmlAdapter xmlAdapter, Object from) throws Exception {
+                return xmlAdapter.unmarshal(from);
+            }
+
+            public List<Object> createList(int expectedSize) {
+                List<Object> list = new ArrayList<Object>(expectedSize);
+                expectedSizes.add(expectedSize);
+                createdLists.add(list);
+
+                return list;
+            }
+
+            public Object postProcessList(List<Object> unprocessedList) {
+                assertThat(createdLists, hasItem(sameInstance(unprocessedList)));
+                return unprocessedList;
+            }
+
+            public Object postProcess(BeanWrapper bean) {
+                return bean.getWrappedInstance();
+            }
+        }
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject.class);
+        JaxbObject result = (JaxbObject) unmarshaller.unmarshal(toElement(xml), new ListCreatingObjectBeanHandler());
+
+        assertThat(expectedSizes, contains(3, 1, 2));
+        assertThat(result.getChildren(), hasSize(3));
+        assertThat(result.getAliases(), contains("This"));
+        assertThat(result.getOptions2(), contains("skip-invalid", "purge-skipped"));
+    }
+
+    @Test
+    public void shouldBuildArrayPropertyWithoutIntermediateList() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <childrenArray valid=\"true\"/>\n"
+                + "  <children name=\"1st\"/>\n"
+                + "  <childrenArray valid=\"false\"/>\n"
+                + "</jaxbObject>";
+        final List<Object> processedValues = new ArrayList<Object>();
+        class RecordingBeanHandler implements BeanHandler<BeanWrapper>, ArrayBuildingBeanHandler {
+
+            public BeanWrapper createBean(Class<?> beanClass) throws Exception {
+                return JaxbeanUnmarshaller.ObjectBeanHandler.INSTANCE.createBean(beanClass);
+            }
+
+            public void setBeanProperty(BeanWrapper bean, String propertyName, Object propertyValue) {
+                JaxbeanUnmarshaller.ObjectBeanHandler.INSTANCE.setBeanProperty(bean, propertyName, propertyValue);
+            }
+
+            public Object unmarshalWith(XmlAdapter xmlAdapter, Object from) throws Exception {
+                return xmlAdapter.unmarshal(from);
+            }
+
+            public Object postProcessList(List<Object> unprocessedList) {
+                Object value = JaxbeanUnmarshaller.ObjectBeanHandler.INSTANCE.postProcessList(unprocessedList);
+                processedValues.add(value);
+
+                return value;
+            }
+
+            public Object postProcess(BeanWrapper bean) {
+                return bean.getWrappedInstance();
+            }
+        }
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject.class);
+        JaxbObject result = (JaxbObject) unmarshaller.unmarshal(toElement(xml), new RecordingBeanHandler());
+
+        assertThat(result.getChildrenArray(), arrayWithSize(2));
+        assertThat(result.getChildrenArray()[0].isValid(), is(true));
+        assertThat(result.getChildrenArray()[1].isValid(), is(false));
+        assertThat(result.getChildren(), hasSize(1));
+        assertThat(processedValues, hasItem(sameInstance((Object) result.getChildrenArray())));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.AfterClass;
+import org.junit.Test;
+import org.xml.sax.SAXException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
+
+/**
+ * @author yihtserns
+ */
+public class PipelinedUnmarshallingTest extends AbstractSpecTest {
+
+    private static final ExecutorService PARSER_EXECUTOR = Executors.newCachedThreadPool();
+
+    @AfterClass
+    public static void shutdownParserExecutor() {
+        PARSER_EXECUTOR.shutdownNow();
+    }
+
+    @Override
+    protected <T> T unmarshal(String xml, Class<T> rootType, Class<?>... allTypes) throws Exception {
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(merge(rootType, allTypes));
+        PipelinedUnmarshaller pipelinedUnmarshaller = new PipelinedUnmarshaller(unmarshaller, PARSER_EXECUTOR);
+
+        return rootType.cast(pipelinedUnmarshaller.unmarshal(new ByteArrayInputStream(xml.getBytes("UTF-8"))));
+    }
+
+    @Test
+    public void canUnmarshalMoreChildrenThanBufferSize() throws Exception {
+        int count = 5000;
+        StringBuilder xml = new StringBuilder("<jaxbObject xmlns=\"http://example.com/jaxb\">\n");
+        for (int i = 0; i < count; i++) {
+            xml.append("  <children name=\"").append(i).append("\"><alias>").append(i).append("</alias></children>\n");
+            xml.append("  <childrenArray valid=\"").append(i % 2 == 0).append("\"/>\n");
+        }
+        xml.append("</jaxbObject>");
+
+        JaxbObject result = unmarshal(xml.toString(), JaxbObject.class);
+        assertThat(result.getChildren(), hasSize(count));
+        assertThat(result.getChildrenArray(), arrayWithSize(count));
+        for (int i = 0; i < count; i++) {
+            assertThat(result.getChildren().get(i).getName(), is(String.valueOf(i)));
+            assertThat(result.getChildrenArray()[i].isValid(), is(i % 2 == 0));
+        }
+    }
+
+    @Test
+    public void shouldReportParsingFailure() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <children name=\"1st\"/>\n"
+                + "  <children name=\"2nd\">\n"
+                + "</jaxbObject>";
+        try {
+            unmarshal(xml, JaxbObject.class);
+            fail("Malformed document should be rejected");
+        } catch (SAXException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldReportParsingFailureAfterRootElement() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <children name=\"1st\"/>\n"
+                + "</jaxbObject>junk";
+        try {
+            unmarshal(xml, JaxbObject.class);
+            fail("Content after root element should be rejected");
+        } catch (SAXException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldReportBindingFailure() throws Exception {
+        StringBuilder xml = new StringBuilder("<jaxbObject xmlns=\"http://example.com/jaxb\">\n");
+        xml.append("  <unknown/>\n");
+        for (int i = 0; i < 5000; i++) {
+            xml.append("  <children name=\"").append(i).append("\"/>\n");
+        }
+        xml.append("</jaxbObject>");
+        try {
+            unmarshal(xml.toString(), JaxbObject.class);
+            fail("Unmapped element should be rejected");
+        } catch (IllegalArgumentException ex) {
+            assertThat(ex.getMessage(), containsString("unknown"));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class ProjectionTest {
+
+    @Test
+    public void canUnmarshalOnlyRequestedProperties() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"3\" displayName=\"JAXB\">\n"
+                + "  <child name=\"A Child\" counter=\"100\">\n"
+                + "    <note>A child</note>\n"
+                + "  </child>\n"
+                + "  <wrappedOptions5>\n"
+                + "    <option5 valid=\"true\" duration=\"200\"/>\n"
+                + "  </wrappedOptions5>\n"
+                + "  <children valid=\"true\"/>\n"
+                + "</jaxbObject>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject.class);
+        Set<String> propertyPaths = new HashSet<String>(Arrays.asList(
+                "count",
+                "child.name",
+                "child.note",
+                "options5.length"));
+
+        for (int i = 0; i < 2; i++) {
+            JaxbObject result = (JaxbObject) unmarshaller.unmarshal(toElement(xml), propertyPaths);
+
+            assertThat(result.getCount(), is(3));
+            assertThat(result.getId(), is(nullValue()));
+            assertThat(result.getChild().getName(), is("A Child"));
+            assertThat(result.getChild().getCount(), is(nullValue()));
+            assertThat(result.getChild().getNote().getText(), is("A child"));
+            assertThat(result.getOptions5().get(0).getLength(), is(200L));
+            assertThat(result.getOptions5().get(0).isValid(), is(nullValue()));
+            assertThat(result.getChildren(), is(nullValue()));
+        }
+    }
+
+    @Test
+    public void canUnmarshalMoreDistinctProjectionsThanCacheSize() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"3\" displayName=\"JAXB\"/>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(
+                new Configuration().projectionCacheSize(1),
+                JaxbObject.class);
+
+        for (int i = 0; i < 2; i++) {
+            JaxbObject countOnly = (JaxbObject) unmarshaller.unmarshal(toElement(xml), Collections.singleton("count"));
+            assertThat(countOnly.getCount(), is(3));
+            assertThat(countOnly.getId(), is(nullValue()));
+
+            JaxbObject idOnly = (JaxbObject) unmarshaller.unmarshal(toElement(xml), Collections.singleton("id"));
+            assertThat(idOnly.getCount(), is(nullValue()));
+            assertThat(idOnly.getId(), is("JAXB"));
+        }
+    }
+}
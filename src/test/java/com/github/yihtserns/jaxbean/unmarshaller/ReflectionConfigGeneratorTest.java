@@ -0,0 +1,126 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject2;
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbParent2;
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.SideNote;
+import java.io.StringWriter;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlElementRef;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class ReflectionConfigGeneratorTest {
+
+    @Test
+    public void canGenerateReflectionConfigForReachableClasses() throws Exception {
+        StringWriter writer = new StringWriter();
+        ReflectionConfigGenerator.write(writer, JaxbObject2.class);
+        String config = writer.toString();
+
+        assertThat(config, startsWith("["));
+        assertThat(config, containsString("\"name\": \"" + JaxbObject2.class.getName() + "\""));
+        assertThat(config, containsString("\"name\": \"" + JaxbParent2.class.getName() + "\""));
+        assertThat(config, containsString("\"name\": \"" + SideNote.class.getName() + "\""));
+        assertThat(config, containsString("\"name\": \"" + SideNote.Adapter.class.getName() + "\""));
+        assertThat(config, not(containsString("\"name\": \"" + JaxbObject.class.getName() + "\"")));
+    }
+
+    @Test
+    public void shouldRegisterBoundClassesPropertyTypesAndAdapters() throws Exception {
+        StringWriter writer = new StringWriter();
+        ReflectionConfigGenerator.write(writer, Drawing.class, Circle.class);
+
+        assertThat(writer.toString(), is("["
+                + entry(Circle.class) + ","
+                + entry(Drawing.class) + ","
+                + entry(Shape.class) + ","
+                + entry(Timeout.class) + ","
+                + entry(TimeoutAdapter.class) + ","
+                + entry(Integer.class) + ","
+                + entry(Number.class) + ","
+                + entry(String.class)
+                + "\n]\n"));
+    }
+
+    private static String entry(Class<?> type) {
+        return "\n  {\n"
+                + "    \"name\": \"" + type.getName() + "\",\n"
+                + "    \"allDeclaredConstructors\": true,\n"
+                + "    \"allDeclaredFields\": true,\n"
+                + "    \"allDeclaredMethods\": true,\n"
+                + "    \"allPublicMethods\": true\n"
+                + "  }";
+    }
+
+    @XmlRootElement(namespace = "http://example.com/jaxb")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static final class Drawing {
+
+        @XmlAttribute
+        private Integer width;
+        @XmlElement
+        @XmlJavaTypeAdapter(TimeoutAdapter.class)
+        private Timeout timeout;
+        @XmlElementRef
+        private Shape shape;
+    }
+
+    public interface Shape {
+    }
+
+    @XmlRootElement(namespace = "http://example.com/jaxb")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static final class Circle implements Shape {
+
+        @XmlAttribute
+        private int radius;
+    }
+
+    public static final class Timeout {
+
+        private long millis;
+
+        public Timeout(long millis) {
+            this.millis = millis;
+        }
+    }
+
+    public static final class TimeoutAdapter extends XmlAdapter<String, Timeout> {
+
+        @Override
+        public Timeout unmarshal(String value) {
+            return new Timeout(Long.parseLong(value));
+        }
+
+        @Override
+        public String marshal(Timeout timeout) {
+            return String.valueOf(timeout.millis);
+        }
+    }
+}
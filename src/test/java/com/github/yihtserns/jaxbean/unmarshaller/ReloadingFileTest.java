@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.adapters.XmlAdapter;
+import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class ReloadingFileTest {
+
+    @Test
+    public void canReloadChangedFile() throws Exception {
+        File file = File.createTempFile("jaxbObject", ".xml");
+        file.deleteOnExit();
+        write(file, "<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"1st\"/>");
+
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject.class);
+        // Polled by the test instead
+        ReloadingFile<JaxbObject> reloadingFile = new ReloadingFile<JaxbObject>(
+                file, unmarshaller, JaxbObject.class, 1, 0, TimeUnit.DAYS);
+        try {
+            assertThat(reloadingFile.get().getId(), is("1st"));
+
+            write(file, "<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"Second\"/>");
+            reloadingFile.poll();
+            assertThat(reloadingFile.get().getId(), is("Second"));
+            assertThat(reloadingFile.getLastReloadFailure(), is(nullValue()));
+        } finally {
+            reloadingFile.close();
+        }
+    }
+
+    @Test
+    public void shouldKeepPreviousResultWhenReloadingThrowsError() throws Exception {
+        File file = File.createTempFile("errorObject", ".xml");
+        file.deleteOnExit();
+        write(file, "<errorObject xmlns=\"http://example.com/jaxb\" value=\"1st\"/>");
+
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(ErrorObject.class);
+        ReloadingFile<ErrorObject> reloadingFile = new ReloadingFile<ErrorObject>(
+                file, unmarshaller, ErrorObject.class, 1, 0, TimeUnit.DAYS);
+        try {
+            write(file, "<errorObject xmlns=\"http://example.com/jaxb\" value=\"error\"/>");
+            reloadingFile.poll();
+            assertThat(reloadingFile.get().getValue(), is("1st"));
+            assertThat(reloadingFile.getLastReloadFailure(), is(instanceOf(NoClassDefFoundError.class)));
+
+            write(file, "<errorObject xmlns=\"http://example.com/jaxb\" value=\"Third one\"/>");
+            reloadingFile.poll();
+            assertThat(reloadingFile.get().getValue(), is("Third one"));
+            assertThat(reloadingFile.getLastReloadFailure(), is(nullValue()));
+        } finally {
+            reloadingFile.close();
+        }
+    }
+
+    private static void write(File file, String xml) throws Exception {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(xml.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+
+    @XmlRootElement(namespace = "http://example.com/jaxb")
+    @XmlAccessorType(XmlAccessType.FIELD)
+    public static final class ErrorObject {
+
+        @XmlJavaTypeAdapter(ErrorAdapter.class)
+        @XmlAttribute
+        private String value;
+
+        public String getValue() {
+            return value;
+        }
+
+        public void setValue(String value) {
+            this.value = value;
+        }
+
+        /**
+         * Throws an {@link Error} for the value {@code error}, e.g. as if a class were missing.
+         */
+        public static final class ErrorAdapter extends XmlAdapter<String, String> {
+
+            @Override
+            public String unmarshal(String vt) {
+                if (vt.equals("error")) {
+                    throw new NoClassDefFoundError("Simulated");
+                }
+                return vt;
+            }
+
+            @Override
+            public String marshal(String bt) {
+                return bt;
+            }
+        }
+    }
+}
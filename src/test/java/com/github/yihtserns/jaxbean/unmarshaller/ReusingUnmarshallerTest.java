@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.AllArgsObject;
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbChild;
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import com.github.yihtserns.jaxbean.unmarshaller.DeferredTest.LazyObject;
+import java.util.List;
+import org.junit.Test;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class ReusingUnmarshallerTest {
+
+    @Test
+    public void canUnmarshalIntoExistingInstance() throws Exception {
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject.class);
+        JaxbObject target = new JaxbObject();
+
+        unmarshaller.unmarshalInto(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"1\">\n"
+                + "  <child name=\"1st\" counter=\"1\"/>\n"
+                + "  <alias>1st</alias>\n"
+                + "  <alias>2nd</alias>\n"
+                + "</jaxbObject>"), target);
+        JaxbChild oldChild = target.getChild();
+        List<String> aliases = target.getAliases();
+
+        JaxbObject result = unmarshaller.unmarshalInto(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <child name=\"2nd\"/>\n"
+                + "  <alias>3rd</alias>\n"
+                + "</jaxbObject>"), target);
+
+        assertThat(result, is(sameInstance(target)));
+        assertThat(target.getCount(), is(nullValue()));
+        assertThat(target.getChild(), is(sameInstance(oldChild)));
+        assertThat(oldChild.getName(), is("2nd"));
+        assertThat(oldChild.getCount(), is(nullValue()));
+        assertThat(target.getAliases(), is(sameInstance(aliases)));
+        assertThat(aliases, contains("3rd"));
+    }
+
+    @Test
+    public void canKeepReusingBeansAndListsOfPreviousResult() throws Exception {
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject.class);
+        JaxbObject target = new JaxbObject();
+        ReusingUnmarshaller<JaxbObject> reusingUnmarshaller = unmarshaller.newReusingUnmarshaller(target);
+
+        reusingUnmarshaller.unmarshal(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\" count=\"1\">\n"
+                + "  <children name=\"1st\" counter=\"1\"/>\n"
+                + "  <children name=\"2nd\"/>\n"
+                + "  <alias>1st</alias>\n"
+                + "</jaxbObject>"));
+        List<JaxbChild> children = target.getChildren();
+        JaxbChild firstChild = children.get(0);
+        JaxbChild secondChild = children.get(1);
+        List<String> aliases = target.getAliases();
+
+        for (int i = 0; i < 3; i++) {
+            // Lists created in the opposite order from the previous call
+            JaxbObject result = reusingUnmarshaller.unmarshal(toElement("<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                    + "  <alias>2nd</alias>\n"
+                    + "  <children name=\"3rd\"/>\n"
+                    + "  <children name=\"4th\"/>\n"
+                    + "</jaxbObject>"));
+
+            assertThat(result, is(sameInstance(target)));
+            assertThat(target.getCount(), is(nullValue()));
+            assertThat(target.getChildren(), is(sameInstance(children)));
+            assertThat(children, contains(sameInstance(firstChild), sameInstance(secondChild)));
+            assertThat(firstChild.getName(), is("3rd"));
+            assertThat(firstChild.getCount(), is(nullValue()));
+            assertThat(secondChild.getName(), is("4th"));
+            assertThat(target.getAliases(), is(sameInstance(aliases)));
+            assertThat(aliases, contains("2nd"));
+        }
+    }
+
+    @Test
+    public void shouldNotReuseBeansOfDeferredChildResolvedAfterItsRun() throws Exception {
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(LazyObject.class);
+        ReusingUnmarshaller<LazyObject> reusingUnmarshaller = unmarshaller.newReusingUnmarshaller(new LazyObject());
+
+        Deferred<JaxbChild> first = reusingUnmarshaller.unmarshal(
+                toElement("<lazyObject xmlns=\"http://example.com/jaxb\"><child name=\"1st\"/></lazyObject>")).getChild();
+        JaxbChild firstChild = first.get();
+
+        Deferred<JaxbChild> second = reusingUnmarshaller.unmarshal(
+                toElement("<lazyObject xmlns=\"http://example.com/jaxb\"><child name=\"2nd\"/></lazyObject>")).getChild();
+        JaxbChild secondChild = second.get();
+
+        assertThat(secondChild, is(not(sameInstance(firstChild))));
+        assertThat(firstChild.getName(), is("1st"));
+        assertThat(secondChild.getName(), is("2nd"));
+    }
+
+    @Test
+    public void shouldResetPrimitivePropertyWhenUnmarshallingIntoExistingInstance() throws Exception {
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(AllArgsObject.class);
+        AllArgsObject target = new AllArgsObject();
+
+        unmarshaller.unmarshalInto(toElement("<allArgsObject xmlns=\"http://example.com/jaxb\" name=\"1st\" count=\"3\"/>"), target);
+        assertThat(target.getCount(), is(3));
+
+        AllArgsObject result = unmarshaller.unmarshalInto(toElement("<allArgsObject xmlns=\"http://example.com/jaxb\" name=\"2nd\"/>"), target);
+        assertThat(result, is(sameInstance(target)));
+        assertThat(target.getName(), is("2nd"));
+        assertThat(target.getCount(), is(0));
+    }
+}
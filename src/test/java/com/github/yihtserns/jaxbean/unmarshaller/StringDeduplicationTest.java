@@ -0,0 +1,65 @@
+/*
+ * Copyright 2015 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbChild;
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import org.junit.Test;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class StringDeduplicationTest {
+
+    @Test
+    public void canDeduplicateStrings() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <children name=\"Same\" description=\"Same\"/>\n"
+                + "  <children name=\"Same\" description=\"Same\"/>\n"
+                + "  <alias>Same</alias>\n"
+                + "</jaxbObject>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(
+                new Configuration().deduplicateStrings(),
+                JaxbObject.class);
+        JaxbObject result = (JaxbObject) unmarshaller.unmarshal(toElement(xml));
+
+        String name = result.getChildren().get(0).getName();
+        assertThat(result.getChildren().get(1).getName(), is(sameInstance(name)));
+        assertThat(result.getChildren().get(0).getDescription(), is(sameInstance(name)));
+        assertThat(result.getChildren().get(1).getDescription(), is(sameInstance(name)));
+        assertThat(result.getAliases().get(0), is(sameInstance(name)));
+    }
+
+    @Test
+    public void canDeduplicateStringsOfSpecificProperty() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <children name=\"Same\" description=\"Same\"/>\n"
+                + "  <children name=\"Same\" description=\"Same\"/>\n"
+                + "</jaxbObject>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(
+                new Configuration().deduplicateStrings(JaxbChild.class, "name"),
+                JaxbObject.class);
+        JaxbObject result = (JaxbObject) unmarshaller.unmarshal(toElement(xml));
+
+        JaxbChild first = result.getChildren().get(0);
+        JaxbChild second = result.getChildren().get(1);
+        assertThat(second.getName(), is(sameInstance(first.getName())));
+        assertThat(second.getDescription(), is(not(sameInstance(first.getDescription()))));
+    }
+}
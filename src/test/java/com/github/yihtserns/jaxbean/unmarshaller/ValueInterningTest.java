@@ -0,0 +1,49 @@
+/*
+ * Copyright 2015 The Apache Software Foundation.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbChild;
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import java.util.List;
+import org.junit.Test;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class ValueInterningTest {
+
+    @Test
+    public void canInternValueBeans() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "  <children name=\"1st\" valid=\"true\"/>\n"
+                + "  <children valid=\"true\" name=\"1st\"/>\n"
+                + "  <children name=\"1st\" valid=\"false\"/>\n"
+                + "</jaxbObject>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(
+                new Configuration().internValues(JaxbChild.class),
+                JaxbObject.class);
+        List<JaxbChild> children = ((JaxbObject) unmarshaller.unmarshal(toElement(xml))).getChildren();
+        List<JaxbChild> nextChildren = ((JaxbObject) unmarshaller.unmarshal(toElement(xml))).getChildren();
+
+        assertThat(children.get(1), is(sameInstance(children.get(0))));
+        assertThat(children.get(2), is(not(sameInstance(children.get(0)))));
+        assertThat(children.get(2).isValid(), is(false));
+        assertThat(nextChildren.get(0), is(sameInstance(children.get(0))));
+    }
+}
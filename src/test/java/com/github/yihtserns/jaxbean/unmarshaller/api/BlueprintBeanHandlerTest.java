@@ -22,17 +22,27 @@ import java.net.URI;
 import java.net.URL;
 import java.util.Arrays;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.apache.aries.blueprint.container.BlueprintContainerImpl;
 import org.apache.aries.blueprint.container.SimpleNamespaceHandlerSet;
 import org.apache.aries.blueprint.mutable.MutableBeanMetadata;
+import org.apache.aries.blueprint.mutable.MutableValueMetadata;
 import org.apache.aries.blueprint.parser.NamespaceHandlerSet;
+import org.apache.aries.blueprint.parser.ParserContextImpl;
 import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 import org.junit.Rule;
 import org.junit.rules.TemporaryFolder;
+import org.osgi.service.blueprint.reflect.BeanMetadata;
+import org.osgi.service.blueprint.reflect.BeanProperty;
 import org.osgi.service.blueprint.reflect.ComponentMetadata;
+import org.osgi.service.blueprint.reflect.ValueMetadata;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 
@@ -66,7 +76,7 @@ public class BlueprintBeanHandlerTest extends AbstractSpecTest {
                     protected NamespaceHandlerSet createNamespaceHandlerSet() {
                         SimpleNamespaceHandlerSet nsHandlerSet = (SimpleNamespaceHandlerSet) super.createNamespaceHandlerSet();
                         if (!nsHandlerSet.getNamespaces().contains(jaxbNamespaceUri)) {
-                            nsHandlerSet.addNamespace(jaxbNamespaceUri, null, new UnmarshallerNamespaceHandler(unmarshaller, id));
+                            nsHandlerSet.addNamespace(jaxbNamespaceUri, null, new UnmarshallerNamespaceHandler(unmarshaller, id, isEagerAdapters()));
                         }
 
                         return nsHandlerSet;
@@ -82,6 +92,65 @@ public class BlueprintBeanHandlerTest extends AbstractSpecTest {
         }
     }
 
+    protected boolean isEagerAdapters() {
+        return false;
+    }
+
+    @Test
+    public void shouldShareValueMetadataOfIdenticalStrings() throws Exception {
+        String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"Same\" description=\"Same\"/>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(AbstractSpecTest.JaxbObject.class);
+        BlueprintBeanHandler beanHandler = new BlueprintBeanHandler(new ParserContextImpl(null, null, null, null));
+
+        MutableBeanMetadata beanMetadata = (MutableBeanMetadata) unmarshaller.unmarshal(toElement(xml), beanHandler);
+
+        assertThat(getPropertyValue(beanMetadata, "id"), is(sameInstance(getPropertyValue(beanMetadata, "description"))));
+    }
+
+    @Test
+    public void canShareHandlerAcrossThreads() throws Exception {
+        final JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(AbstractSpecTest.JaxbObject.class);
+        final BlueprintBeanHandler beanHandler = new BlueprintBeanHandler(new ParserContextImpl(null, null, null, null));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] futures = new Future<?>[4];
+            for (int i = 0; i < futures.length; i++) {
+                final int thread = i;
+                futures[i] = executor.submit(new Callable<Void>() {
+
+                    public Void call() throws Exception {
+                        for (int j = 0; j < 500; j++) {
+                            String value = thread + "-" + j;
+                            String xml = "<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"" + value + "\"/>";
+
+                            MutableBeanMetadata beanMetadata = (MutableBeanMetadata) unmarshaller.unmarshal(toElement(xml), beanHandler);
+
+                            ValueMetadata valueMetadata = (ValueMetadata) getPropertyValue(beanMetadata, "id");
+                            assertThat(valueMetadata.getStringValue(), is(value));
+                            assertThat(valueMetadata, is(not(instanceOf(MutableValueMetadata.class))));
+                        }
+                        return null;
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static org.osgi.service.blueprint.reflect.Metadata getPropertyValue(BeanMetadata beanMetadata, String propertyName) {
+        for (BeanProperty property : beanMetadata.getProperties()) {
+            if (property.getName().equals(propertyName)) {
+                return property.getValue();
+            }
+        }
+        throw new IllegalArgumentException("No such property: " + propertyName);
+    }
+
     @Test
     public void canResolvePropertyPlaceholders() throws Exception {
         String xml = "<blueprint xmlns=\"http://www.osgi.org/xmlns/blueprint/v1.0.0\""
@@ -296,15 +365,17 @@ public class BlueprintBeanHandlerTest extends AbstractSpecTest {
 
         private final JaxbeanUnmarshaller unmarshaller;
         private final String id;
+        private final boolean eagerAdapters;
 
-        public UnmarshallerNamespaceHandler(JaxbeanUnmarshaller unmarshaller, String id) {
+        public UnmarshallerNamespaceHandler(JaxbeanUnmarshaller unmarshaller, String id, boolean eagerAdapters) {
             this.unmarshaller = unmarshaller;
             this.id = id;
+            this.eagerAdapters = eagerAdapters;
         }
 
         public org.osgi.service.blueprint.reflect.Metadata parse(Element element, org.apache.aries.blueprint.ParserContext parserContext) {
             try {
-                MutableBeanMetadata beanMetadata = (MutableBeanMetadata) unmarshaller.unmarshal(element, new BlueprintBeanHandler(parserContext));
+                MutableBeanMetadata beanMetadata = (MutableBeanMetadata) unmarshaller.unmarshal(element, new BlueprintBeanHandler(parserContext, eagerAdapters));
                 beanMetadata.setId(id);
 
                 return beanMetadata;
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller.api;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject;
+import com.github.yihtserns.jaxbean.unmarshaller.JaxbeanUnmarshaller;
+import java.io.StringReader;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class DeferredSpringBeanHandlerTest extends SpringBeanHandlerTest {
+
+    @Override
+    protected boolean isDeferred() {
+        return true;
+    }
+
+    @Test
+    public void shouldNotUnmarshalBeanThatIsNeverRequested() throws Exception {
+        String xml = "<beans xmlns=\"http://www.springframework.org/schema/beans\""
+                + "     xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+                + "     xsi:schemaLocation=\"http://www.springframework.org/schema/beans http://www.springframework.org/schema/beans/spring-beans.xsd\""
+                + "  >\n"
+                + "  <root xmlns=\"http://example.com/jaxb\">\n"
+                + "    <jaxbObject displayName=\"JAXB\"/>\n"
+                + "  </root>\n"
+                + "  <jaxbObject xmlns=\"http://example.com/jaxb\">\n"
+                + "    <unmappedElement/>\n"
+                + "  </jaxbObject>\n"
+                + "</beans>";
+
+        Root root = unmarshal(xml, Root.class, JaxbObject.class);
+        assertThat(root.getJaxbObject().getId(), is("JAXB"));
+    }
+
+    @Test
+    public void shouldReturnSameBeanWhenRequestedAgain() throws Exception {
+        DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+        documentBuilderFactory.setNamespaceAware(true);
+        Element element = documentBuilderFactory.newDocumentBuilder()
+                .parse(new InputSource(new StringReader("<jaxbObject xmlns=\"http://example.com/jaxb\" displayName=\"JAXB\"/>")))
+                .getDocumentElement();
+
+        DeferredBeanFactoryBean factoryBean = new DeferredBeanFactoryBean(JaxbeanUnmarshaller.newInstance(JaxbObject.class), element);
+        factoryBean.setBeanFactory(new DefaultListableBeanFactory());
+        JaxbObject first = (JaxbObject) factoryBean.getObject();
+        assertThat(first.getId(), is("JAXB"));
+        assertThat(factoryBean.getObject(), is(sameInstance((Object) first)));
+    }
+}
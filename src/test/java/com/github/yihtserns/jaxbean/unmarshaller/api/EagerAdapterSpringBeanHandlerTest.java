@@ -0,0 +1,59 @@
+/*
+ * Copyright 2016 yihtserns.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.yihtserns.jaxbean.unmarshaller.api;
+
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.JaxbObject2;
+import com.github.yihtserns.jaxbean.unmarshaller.AbstractSpecTest.SideNote;
+import com.github.yihtserns.jaxbean.unmarshaller.JaxbeanUnmarshaller;
+import org.junit.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import static com.github.yihtserns.jaxbean.unmarshaller.TestElements.toElement;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * @author yihtserns
+ */
+public class EagerAdapterSpringBeanHandlerTest extends SpringBeanHandlerTest {
+
+    @Override
+    protected SpringBeanHandler getBeanHandler() {
+        return SpringBeanHandler.EAGER_ADAPTER_INSTANCE;
+    }
+
+    @Test
+    public void shouldApplyAdapterToLiteralWhileParsing() throws Exception {
+        String xml = "<secondJaxbObject xmlns=\"http://example.com/jaxb\" annotationAttr=\"WIP\"/>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject2.class);
+
+        BeanDefinition beanDef = (BeanDefinition) unmarshaller.unmarshal(toElement(xml), getBeanHandler());
+        Object annotationAttr = beanDef.getPropertyValues().getPropertyValue("annotationAttr").getValue();
+
+        assertThat(annotationAttr, is(instanceOf(SideNote.class)));
+        assertThat(((SideNote) annotationAttr).getText(), is("WIP"));
+    }
+
+    @Test
+    public void shouldNotApplyAdapterToPlaceholderWhileParsing() throws Exception {
+        String xml = "<secondJaxbObject xmlns=\"http://example.com/jaxb\" annotationAttr=\"${annotation}\"/>";
+        JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(JaxbObject2.class);
+
+        BeanDefinition beanDef = (BeanDefinition) unmarshaller.unmarshal(toElement(xml), getBeanHandler());
+        Object annotationAttr = beanDef.getPropertyValues().getPropertyValue("annotationAttr").getValue();
+
+        assertThat(annotationAttr, is(instanceOf(BeanDefinition.class)));
+    }
+}
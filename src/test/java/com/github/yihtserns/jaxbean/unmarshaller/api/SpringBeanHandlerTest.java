@@ -41,7 +41,7 @@ public class SpringBeanHandlerTest extends AbstractSpecTest {
     @Override
     protected <T> T unmarshal(String xml, Class<T> rootType, Class<?>... allTypes) throws Exception {
         JaxbeanUnmarshaller unmarshaller = JaxbeanUnmarshaller.newInstance(merge(rootType, allTypes));
-        final UnmarshallerNamespaceHandler unmarshallerNamespaceHandler = new UnmarshallerNamespaceHandler(unmarshaller);
+        final UnmarshallerNamespaceHandler unmarshallerNamespaceHandler = new UnmarshallerNamespaceHandler(unmarshaller, getBeanHandler(), isDeferred());
 
         GenericApplicationContext appContext = new GenericApplicationContext();
         XmlBeanDefinitionReader xmlReader = new XmlBeanDefinitionReader(appContext) {
@@ -67,6 +67,14 @@ public class SpringBeanHandlerTest extends AbstractSpecTest {
         return appContext.getBean(rootType);
     }
 
+    protected SpringBeanHandler getBeanHandler() {
+        return SpringBeanHandler.INSTANCE;
+    }
+
+    protected boolean isDeferred() {
+        return false;
+    }
+
     @Test
     public void canResolvePropertyPlaceholders() throws Exception {
         String xml = "<beans xmlns=\"http://www.springframework.org/schema/beans\""
@@ -284,15 +292,22 @@ public class SpringBeanHandlerTest extends AbstractSpecTest {
     private static final class UnmarshallerNamespaceHandler extends AbstractBeanDefinitionParser implements NamespaceHandler {
 
         private JaxbeanUnmarshaller unmarshaller;
+        private SpringBeanHandler beanHandler;
+        private boolean deferred;
 
-        public UnmarshallerNamespaceHandler(JaxbeanUnmarshaller unmarshaller) {
+        public UnmarshallerNamespaceHandler(JaxbeanUnmarshaller unmarshaller, SpringBeanHandler beanHandler, boolean deferred) {
             this.unmarshaller = unmarshaller;
+            this.beanHandler = beanHandler;
+            this.deferred = deferred;
         }
 
         @Override
         protected AbstractBeanDefinition parseInternal(Element element, ParserContext parserContext) {
+            if (deferred) {
+                return DeferredBeanFactoryBean.createBeanDefinition(unmarshaller, element);
+            }
             try {
-                return (AbstractBeanDefinition) unmarshaller.unmarshal(element, SpringBeanHandler.INSTANCE);
+                return (AbstractBeanDefinition) unmarshaller.unmarshal(element, beanHandler);
             } catch (Exception ex) {
                 String localName = parserContext.getDelegate().getLocalName(element);
 